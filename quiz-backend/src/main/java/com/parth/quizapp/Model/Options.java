@@ -17,7 +17,7 @@ public class Options {
     @Column(nullable = false)
     private String text;
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id", nullable = false)
     private Ques question;
 
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+// Fetch plan for use cases that check the quiz's owner (see quesRepo.findWithQuizById)
+@NamedEntityGraph(name = "Ques.quiz", attributeNodes = @NamedAttributeNode("quiz"))
 @Entity
 @Data
 @NoArgsConstructor
@@ -12,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class Ques{
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ques_seq")
+    @SequenceGenerator(name = "ques_seq", sequenceName = "ques_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 5000)
@@ -27,6 +30,9 @@ public class Ques{
 
     private String answer;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Optional topic or difficulty label; pooled quizzes draw from each tag in proportion
+    private String tag;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     private com.parth.quizapp.Model.Quiz quiz;
 }
\ No newline at end of file
@@ -25,11 +25,21 @@ public class Quiz {
     private int maxMarks;
     private int numberOfQuestions;
     private boolean active = true;
+    // Each attempt sees its own question and option order (see QuestionService.getAttemptQuestions)
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean shuffleQuestions;
+    // Each attempt draws numberOfQuestions questions from a possibly larger bank (see AttemptShuffle.draw)
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean questionPool;
     private LocalDateTime createdAt;
-    @ManyToOne
+    // Bumped on every change to the quiz row; the basis of the catalog ETags
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id")
     private User teacher;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "creator_id")
     private User creator;
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -6,23 +6,29 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
+// Fetch plans (see QuizAttemptRepo): the student alone when the quiz is already loaded, both for grading
+@NamedEntityGraph(name = "QuizAttempt.student", attributeNodes = @NamedAttributeNode("student"))
+@NamedEntityGraph(name = "QuizAttempt.quizAndStudent",
+        attributeNodes = {@NamedAttributeNode("quiz"), @NamedAttributeNode("student")})
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class QuizAttempt {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quiz_attempt_seq")
+    @SequenceGenerator(name = "quiz_attempt_seq", sequenceName = "quiz_attempt_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", nullable = false)
     private User student;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_id", nullable = false)
     private Quiz quiz;
 
@@ -35,6 +41,10 @@ public class QuizAttempt {
     private LocalDateTime endTime;
     private boolean completed = false;
 
+    // JSON map of question id to selected answer, autosaved while the attempt is in progress
+    @Column(length = 65535)
+    private String draftAnswers;
+
     @OneToMany(mappedBy = "quizAttempt", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StudentAnswer> studentAnswers = new ArrayList<>();
 
@@ -47,6 +57,7 @@ public class QuizAttempt {
 
     public void completeAttempt() {
         this.completed = true;
-        this.endTime = LocalDateTime.now();
+        // Database precision, so in-memory copies (e.g. leaderboard entries) match the stored row
+        this.endTime = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
\ No newline at end of file
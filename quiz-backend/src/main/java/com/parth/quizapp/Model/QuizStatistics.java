@@ -0,0 +1,89 @@
+package com.parth.quizapp.Model;
+
+import com.parth.quizapp.analysis.KllSketch;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running score aggregate for one quiz. Counts, sums, extremes and the histogram are updated in the
+ * transaction that completes an attempt. The score sketch is merged in batches shortly after it commits
+ * and is approximate: buffered scores can be lost on a crash or counted twice across a rebuild, until
+ * the next rebuild. The histogram has {@link #BUCKETS} buckets of equal percentage width; the last
+ * one includes 100%.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizStatistics {
+    public static final int BUCKETS = 10;
+
+    @Id
+    private Long quizId;
+
+    private long attemptCount;
+    private long scoreSum;
+    private long scoreSumOfSquares;
+    private Integer minScore;
+    private Integer maxScore;
+
+    private int[] histogram;
+
+    // Serialized KllSketch of scores, for percentiles
+    @Column(length = 16384)
+    private byte[] scoreSketch;
+
+    public QuizStatistics(Long quizId) {
+        this.quizId = quizId;
+        this.histogram = new int[BUCKETS];
+    }
+
+    public void record(int score, int totalMarks) {
+        record(score, totalMarks, 1);
+    }
+
+    public void record(int score, int totalMarks, long times) {
+        attemptCount += times;
+        scoreSum += score * times;
+        scoreSumOfSquares += (long) score * score * times;
+        minScore = minScore == null ? score : Math.min(minScore, score);
+        maxScore = maxScore == null ? score : Math.max(maxScore, score);
+
+        if (histogram == null) {
+            histogram = new int[BUCKETS];
+        }
+        histogram[bucketOf(score, totalMarks)] += (int) times;
+
+        KllSketch sketch = scoreSketch == null ? new KllSketch() : KllSketch.fromBytes(scoreSketch);
+        for (long i = 0; i < times; i++) {
+            sketch.update(score);
+        }
+        scoreSketch = sketch.toBytes();
+    }
+
+    // Adds scores already counted everywhere else to the sketch only
+    public void mergeSketch(KllSketch scores) {
+        KllSketch sketch = scoreSketch == null ? new KllSketch() : KllSketch.fromBytes(scoreSketch);
+        sketch.merge(scores);
+        scoreSketch = sketch.toBytes();
+    }
+
+    public void reset() {
+        attemptCount = 0;
+        scoreSum = 0;
+        scoreSumOfSquares = 0;
+        minScore = null;
+        maxScore = null;
+        histogram = new int[BUCKETS];
+        scoreSketch = null;
+    }
+
+    public static int bucketOf(int score, int totalMarks) {
+        if (totalMarks <= 0 || score <= 0) {
+            return 0;
+        }
+        return (int) Math.min(BUCKETS - 1, (long) score * BUCKETS / totalMarks);
+    }
+}
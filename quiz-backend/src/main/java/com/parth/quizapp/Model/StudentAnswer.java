@@ -5,20 +5,23 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+// Fetch plan for reading answers back with their questions (see StudentAnswerRepo.findByQuizAttempt)
+@NamedEntityGraph(name = "StudentAnswer.question", attributeNodes = @NamedAttributeNode("question"))
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class StudentAnswer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_answer_seq")
+    @SequenceGenerator(name = "student_answer_seq", sequenceName = "student_answer_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quiz_attempt_id", nullable = false)
     private QuizAttempt quizAttempt;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id", nullable = false)
     private Ques question;
 
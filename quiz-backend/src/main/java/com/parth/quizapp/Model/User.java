@@ -1,5 +1,6 @@
 package com.parth.quizapp.Model;
 
+import com.parth.quizapp.cache.PrincipalInvalidationListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "app_user")
+@EntityListeners(PrincipalInvalidationListener.class)
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,129 @@
+package com.parth.quizapp.analysis;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Per-question running sums for item analysis, laid out flat in one long[]:
+ * responses, correct, sum and sum of squares of attempt scores, score sum of the
+ * correct responders, then counts for blank and option1..option4.
+ */
+public final class ItemAccumulator {
+
+    private static final int RESPONSES = 0;
+    private static final int CORRECT = 1;
+    private static final int SCORE_SUM = 2;
+    private static final int SCORE_SQUARES = 3;
+    private static final int CORRECT_SCORE_SUM = 4;
+    private static final int OPTIONS = 5;
+    private static final int STRIDE = OPTIONS + 5;
+
+    private final int questionCount;
+    private final long[] sums;
+
+    public ItemAccumulator(int questionCount) {
+        this.questionCount = questionCount;
+        this.sums = new long[questionCount * STRIDE];
+    }
+
+    public void add(ResponseChunk chunk, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int base = chunk.questionIndexes[i] * STRIDE;
+            long score = chunk.attemptScores[i];
+            sums[base + RESPONSES]++;
+            sums[base + SCORE_SUM] += score;
+            sums[base + SCORE_SQUARES] += score * score;
+            if (chunk.correct[i]) {
+                sums[base + CORRECT]++;
+                sums[base + CORRECT_SCORE_SUM] += score;
+            }
+            sums[base + OPTIONS + chunk.options[i]]++;
+        }
+    }
+
+    public void merge(ItemAccumulator other) {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] += other.sums[i];
+        }
+    }
+
+    public int questionCount() {
+        return questionCount;
+    }
+
+    public long responses(int question) {
+        return sums[question * STRIDE + RESPONSES];
+    }
+
+    // Option 0 counts blank or unrecognised answers, 1-4 count option1..option4
+    public long optionCount(int question, int option) {
+        return sums[question * STRIDE + OPTIONS + option];
+    }
+
+    // Share of responders who answered correctly (classical p-value)
+    public double difficulty(int question) {
+        long n = responses(question);
+        return n > 0 ? (double) sums[question * STRIDE + CORRECT] / n : 0;
+    }
+
+    // Point-biserial correlation between answering correctly and the attempt's score;
+    // null when undefined (nobody or everybody correct, or no score variance)
+    public Double discrimination(int question) {
+        int base = question * STRIDE;
+        long n = sums[base + RESPONSES];
+        long correct = sums[base + CORRECT];
+        if (n == 0 || correct == 0 || correct == n) {
+            return null;
+        }
+
+        double mean = (double) sums[base + SCORE_SUM] / n;
+        double variance = (double) sums[base + SCORE_SQUARES] / n - mean * mean;
+        if (variance <= 0) {
+            return null;
+        }
+
+        double p = (double) correct / n;
+        double meanCorrect = (double) sums[base + CORRECT_SCORE_SUM] / correct;
+        double meanIncorrect = (double) (sums[base + SCORE_SUM] - sums[base + CORRECT_SCORE_SUM]) / (n - correct);
+        return (meanCorrect - meanIncorrect) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+    }
+
+    /**
+     * Splits a chunk into ranges of at most {@code threshold} responses, accumulates each
+     * range into its own accumulator and merges them on the way back up.
+     */
+    public static final class Task extends RecursiveTask<ItemAccumulator> {
+        private final ResponseChunk chunk;
+        private final int questionCount;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        public Task(ResponseChunk chunk, int questionCount, int threshold) {
+            this(chunk, questionCount, 0, chunk.size(), threshold);
+        }
+
+        private Task(ResponseChunk chunk, int questionCount, int from, int to, int threshold) {
+            this.chunk = chunk;
+            this.questionCount = questionCount;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected ItemAccumulator compute() {
+            if (to - from <= threshold) {
+                ItemAccumulator accumulator = new ItemAccumulator(questionCount);
+                accumulator.add(chunk, from, to);
+                return accumulator;
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(chunk, questionCount, from, mid, threshold);
+            left.fork();
+            ItemAccumulator right = new Task(chunk, questionCount, mid, to, threshold).compute();
+            ItemAccumulator merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.parth.quizapp.analysis;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty 2016). Level h holds items that each stand for
+ * 2^h inputs; when the sketch is full the lowest over-capacity level is sorted and every
+ * other item, from a random offset, is promoted. Retains roughly 3k items regardless of
+ * stream length; normalized rank error is about 1.7/k with high probability. Sketches
+ * merge by concatenating levels. Not thread-safe.
+ */
+public final class KllSketch {
+
+    public static final int DEFAULT_K = 200;
+
+    private static final byte FORMAT = 1;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private long n;
+    private float[][] levels;
+    private int[] sizes;
+    private int levelCount;
+    private int retained;
+    private int maxRetained;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        this.k = k;
+        this.levels = new float[4][];
+        this.sizes = new int[4];
+        addLevel();
+    }
+
+    public long size() {
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public void update(float value) {
+        append(0, value);
+        n++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(KllSketch other) {
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levelCount; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        n += other.n;
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public SortedView sortedView() {
+        float[] values = new float[retained];
+        long[] weights = new long[retained];
+        int[] order = new int[retained];
+        int next = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[next] = levels[h][i];
+                weights[next] = 1L << h;
+                order[next] = next;
+                next++;
+            }
+        }
+
+        Integer[] boxed = Arrays.stream(order).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, (a, b) -> Float.compare(values[a], values[b]));
+
+        float[] sortedValues = new float[retained];
+        long[] cumulative = new long[retained];
+        long total = 0;
+        for (int i = 0; i < retained; i++) {
+            sortedValues[i] = values[boxed[i]];
+            total += weights[boxed[i]];
+            cumulative[i] = total;
+        }
+        return new SortedView(sortedValues, cumulative);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 + 8 + 1 + levelCount * 4 + retained * 4);
+        buffer.put(FORMAT);
+        buffer.putShort((short) k);
+        buffer.putLong(n);
+        buffer.put((byte) levelCount);
+        for (int h = 0; h < levelCount; h++) {
+            buffer.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putFloat(levels[h][i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static KllSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT) {
+            throw new IllegalArgumentException("Unknown sketch format");
+        }
+        KllSketch sketch = new KllSketch(buffer.getShort());
+        sketch.n = buffer.getLong();
+        int levelCount = buffer.get();
+        while (sketch.levelCount < levelCount) {
+            sketch.addLevel();
+        }
+        for (int h = 0; h < levelCount; h++) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.append(h, buffer.getFloat());
+            }
+        }
+        return sketch;
+    }
+
+    private void compress() {
+        for (int h = 0; h < levelCount; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 >= levelCount) {
+                    addLevel();
+                }
+                compact(h);
+                if (retained < maxRetained) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Sort level h and promote every other item to h + 1; an odd item out stays behind
+    private void compact(int h) {
+        float[] items = levels[h];
+        int size = sizes[h];
+        Arrays.sort(items, 0, size);
+
+        int keep = size % 2;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = keep + offset; i < size; i += 2) {
+            append(h + 1, items[i]);
+        }
+        retained -= size - keep;
+        sizes[h] = keep;
+    }
+
+    private void append(int h, float value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], levels[h].length * 2);
+        }
+        levels[h][sizes[h]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            sizes = Arrays.copyOf(sizes, levelCount * 2);
+        }
+        levels[levelCount] = new float[MIN_LEVEL_CAPACITY];
+        levelCount++;
+
+        maxRetained = 0;
+        for (int h = 0; h < levelCount; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    // The top level holds k items; each level below holds 2/3 as many, but at least 8
+    private int capacity(int h) {
+        int depth = levelCount - h - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    /**
+     * Retained items sorted by value with cumulative weights, answering rank and quantile
+     * queries by binary search.
+     */
+    public static final class SortedView {
+        private final float[] values;
+        private final long[] cumulative;
+
+        private SortedView(float[] values, long[] cumulative) {
+            this.values = values;
+            this.cumulative = cumulative;
+        }
+
+        public static SortedView empty() {
+            return new SortedView(new float[0], new long[0]);
+        }
+
+        public boolean isEmpty() {
+            return values.length == 0;
+        }
+
+        public long total() {
+            return values.length == 0 ? 0 : cumulative[values.length - 1];
+        }
+
+        // Smallest retained value whose cumulative weight reaches q of the total
+        public double quantile(double q) {
+            if (isEmpty()) {
+                return Double.NaN;
+            }
+            long target = Math.max(1, (long) Math.ceil(q * total()));
+            int i = Arrays.binarySearch(cumulative, target);
+            return values[i >= 0 ? i : Math.min(-i - 1, values.length - 1)];
+        }
+
+        // Percent of inputs below value, counting inputs equal to it as half below
+        public double percentileRank(double value) {
+            if (isEmpty()) {
+                return Double.NaN;
+            }
+            long below = weightBefore(value, false);
+            long atMost = weightBefore(value, true);
+            return (below + atMost) / 2.0 / total() * 100;
+        }
+
+        private long weightBefore(double value, boolean inclusive) {
+            int lo = 0;
+            int hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value || (inclusive && values[mid] == value)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo == 0 ? 0 : cumulative[lo - 1];
+        }
+    }
+}
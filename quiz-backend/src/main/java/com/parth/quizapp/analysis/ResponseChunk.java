@@ -0,0 +1,42 @@
+package com.parth.quizapp.analysis;
+
+/**
+ * A block of graded responses held in parallel primitive arrays, filled from a JDBC
+ * cursor and then aggregated by {@link ItemAccumulator.Task}.
+ */
+public final class ResponseChunk {
+
+    final int[] questionIndexes;
+    final byte[] options;
+    final boolean[] correct;
+    final int[] attemptScores;
+    private int size;
+
+    public ResponseChunk(int capacity) {
+        questionIndexes = new int[capacity];
+        options = new byte[capacity];
+        correct = new boolean[capacity];
+        attemptScores = new int[capacity];
+    }
+
+    // option is 1-4 for option1..option4 and 0 for blank or unrecognised answers
+    public void add(int questionIndex, int option, boolean isCorrect, int attemptScore) {
+        questionIndexes[size] = questionIndex;
+        options[size] = (byte) option;
+        correct[size] = isCorrect;
+        attemptScores[size] = attemptScore;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == questionIndexes.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
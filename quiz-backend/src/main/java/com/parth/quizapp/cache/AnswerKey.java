@@ -0,0 +1,124 @@
+package com.parth.quizapp.cache;
+
+import java.util.*;
+
+/**
+ * Compact, immutable answer key for one quiz: question ids in grading order and the
+ * correct option index (1-4) for each. Answers stored in any other form than
+ * "option1".."option4" keep their literal string so grading stays an exact match.
+ * Also the pool index of pooled quizzes: positions grouped into strata by question tag.
+ */
+public final class AnswerKey {
+
+    private final long[] questionIds;
+    private final byte[] answerIndexes;
+    private final String[] literalAnswers;
+    // Positions grouped by tag (untagged first, then tags in name order); stratum s is
+    // strataPositions[strataStarts[s]] up to strataPositions[strataStarts[s + 1]]
+    private final int[] strataPositions;
+    private final int[] strataStarts;
+
+    private AnswerKey(long[] questionIds, byte[] answerIndexes, String[] literalAnswers,
+                      int[] strataPositions, int[] strataStarts) {
+        this.questionIds = questionIds;
+        this.answerIndexes = answerIndexes;
+        this.literalAnswers = literalAnswers;
+        this.strataPositions = strataPositions;
+        this.strataStarts = strataStarts;
+    }
+
+    // Rows are (question id, answer, tag) as returned by quesRepo.findAnswerKeyByQuizId
+    public static AnswerKey compile(List<Object[]> rows) {
+        int size = rows.size();
+        long[] questionIds = new long[size];
+        byte[] answerIndexes = new byte[size];
+        String[] literalAnswers = null;
+        Map<String, List<Integer>> strata = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            questionIds[i] = (Long) row[0];
+            String answer = (String) row[1];
+            answerIndexes[i] = (byte) optionIndex(answer);
+            if (answerIndexes[i] == 0 && answer != null) {
+                if (literalAnswers == null) {
+                    literalAnswers = new String[size];
+                }
+                literalAnswers[i] = answer;
+            }
+            String tag = row.length > 2 ? (String) row[2] : null;
+            strata.computeIfAbsent(tag == null || tag.isBlank() ? null : tag.trim(), t -> new ArrayList<>()).add(i);
+        }
+
+        int[] strataPositions = new int[size];
+        int[] strataStarts = new int[strata.size() + 1];
+        int next = 0;
+        int s = 0;
+        for (List<Integer> positions : strata.values()) {
+            strataStarts[s++] = next;
+            for (int position : positions) {
+                strataPositions[next++] = position;
+            }
+        }
+        strataStarts[s] = next;
+        return new AnswerKey(questionIds, answerIndexes, literalAnswers, strataPositions, strataStarts);
+    }
+
+    // Maps "option1".."option4" to 1..4, anything else to 0
+    public static int optionIndex(String answer) {
+        if (answer == null || answer.length() != 7 || !answer.startsWith("option")) {
+            return 0;
+        }
+        char c = answer.charAt(6);
+        return c >= '1' && c <= '4' ? c - '0' : 0;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public long questionId(int i) {
+        return questionIds[i];
+    }
+
+    // Position of a question in grading order, or -1 if it is not part of this key
+    public int indexOf(long questionId) {
+        int i = Arrays.binarySearch(questionIds, questionId);
+        return i >= 0 ? i : -1;
+    }
+
+    public int strataCount() {
+        return strataStarts.length - 1;
+    }
+
+    public int stratumSize(int s) {
+        return strataStarts[s + 1] - strataStarts[s];
+    }
+
+    // Position (in grading order) of the j-th question of stratum s
+    public int stratumPosition(int s, int j) {
+        return strataPositions[strataStarts[s] + j];
+    }
+
+    public int answerIndex(int i) {
+        return answerIndexes[i];
+    }
+
+    // The stored answer string, e.g. "option2"
+    public String answer(int i) {
+        if (answerIndexes[i] != 0) {
+            return "option" + answerIndexes[i];
+        }
+        return literalAnswers != null ? literalAnswers[i] : null;
+    }
+
+    public boolean isCorrect(int i, String selectedAnswer) {
+        if (selectedAnswer == null) {
+            return false;
+        }
+        if (answerIndexes[i] != 0) {
+            return answerIndexes[i] == optionIndex(selectedAnswer);
+        }
+        return literalAnswers != null && selectedAnswer.equals(literalAnswers[i]);
+    }
+}
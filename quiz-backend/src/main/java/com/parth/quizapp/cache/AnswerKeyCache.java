@@ -0,0 +1,112 @@
+package com.parth.quizapp.cache;
+
+import com.parth.quizapp.repo.quesRepo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of compiled answer keys so grading does not reload Ques entities.
+ * Must be invalidated whenever a quiz or one of its questions changes; the TTL bounds
+ * how long a change made on another node keeps being graded against the old key.
+ */
+@Component
+public class AnswerKeyCache {
+
+    @Autowired
+    private quesRepo questionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.answer-key-cache.max-quizzes:1000}")
+    private int maxQuizzes;
+
+    @Value("${quiz.answer-key-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // Bumped on every invalidation so a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<Long, Cached> keys;
+
+    private record Cached(AnswerKey key, long loadedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                if (size() > maxQuizzes) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("quiz.answer_key_cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.answer_key_cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.answer_key_cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quiz.answer_key_cache.size", this, AnswerKeyCache::size).register(meterRegistry);
+    }
+
+    public AnswerKey get(Long quizId) {
+        long now = System.currentTimeMillis();
+        synchronized (keys) {
+            Cached cached = keys.get(quizId);
+            if (cached != null && now - cached.loadedAt() < ttlMs) {
+                hits.incrementAndGet();
+                return cached.key();
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        AnswerKey key = AnswerKey.compile(questionRepository.findAnswerKeyByQuizId(quizId));
+
+        synchronized (keys) {
+            if (generation.get() == loadedAt) {
+                keys.put(quizId, new Cached(key, now));
+            }
+        }
+        return key;
+    }
+
+    public void invalidate(Long quizId) {
+        synchronized (keys) {
+            generation.incrementAndGet();
+            keys.remove(quizId);
+        }
+    }
+
+    public int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+}
@@ -0,0 +1,120 @@
+package com.parth.quizapp.cache;
+
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-limited cache of authenticated principals so the JWT filter does not query
+ * app_user on every request. Entries are immutable snapshots (no password hash); every
+ * request gets its own detached {@link User}, so services can keep casting the principal.
+ * Invalidated by {@link PrincipalInvalidationListener} whenever a user row changes.
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${quiz.security.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Bumped on every invalidation so a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<String, Snapshot> principals;
+
+    public record Snapshot(Long id, String username, Role role, long loadedAt) {
+        public User toUser() {
+            return User.builder().id(id).username(username).role(role).build();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        FunctionCounter.builder("quiz.principal_cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.principal_cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quiz.principal_cache.size", this, PrincipalCache::size).register(meterRegistry);
+    }
+
+    public User get(String username) {
+        long now = System.currentTimeMillis();
+        synchronized (principals) {
+            Snapshot snapshot = principals.get(username);
+            if (snapshot != null && now - snapshot.loadedAt() < ttlMs) {
+                hits.incrementAndGet();
+                return snapshot.toUser();
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        User user = (User) userDetailsService.loadUserByUsername(username);
+        Snapshot snapshot = new Snapshot(user.getId(), user.getUsername(), user.getRole(), now);
+
+        synchronized (principals) {
+            if (generation.get() == loadedAt) {
+                principals.put(username, snapshot);
+            }
+        }
+        return snapshot.toUser();
+    }
+
+    // Drops the user's entry, also under any previous username
+    public void invalidate(User user) {
+        synchronized (principals) {
+            generation.incrementAndGet();
+            principals.remove(user.getUsername());
+            if (user.getId() != null) {
+                principals.values().removeIf(snapshot -> user.getId().equals(snapshot.id()));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (principals) {
+            generation.incrementAndGet();
+            principals.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (principals) {
+            return principals.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
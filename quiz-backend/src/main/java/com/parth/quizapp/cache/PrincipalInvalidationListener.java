@@ -0,0 +1,39 @@
+package com.parth.quizapp.cache;
+
+import com.parth.quizapp.Model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User}: any role, password or username change evicts the
+ * cached principal, at flush and again after commit. Until the commit, concurrent loads
+ * still read the old row and could re-cache it. Instantiated by Hibernate through Spring's
+ * bean container while the EntityManagerFactory is still being built, hence the deferred
+ * cache lookup.
+ */
+public class PrincipalInvalidationListener {
+
+    @Autowired
+    private ObjectProvider<PrincipalCache> principalCache;
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        PrincipalCache cache = principalCache.getObject();
+        cache.invalidate(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The entity may change again before commit; evict the identity it had at this flush
+            User changed = User.builder().id(user.getId()).username(user.getUsername()).build();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(changed);
+                }
+            });
+        }
+    }
+}
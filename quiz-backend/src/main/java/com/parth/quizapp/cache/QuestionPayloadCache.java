@@ -0,0 +1,159 @@
+package com.parth.quizapp.cache;
+
+import com.parth.quizapp.dto.QuestionDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LRU cache of the student-facing (answer-free) question list of each quiz, rendered once
+ * to JSON bytes plus an optional gzipped copy and written to responses as-is. Each entry
+ * also carries the quiz's active, shuffle, pool and creator fields, so the access check needs
+ * no query, and the question list itself for building per-attempt views.
+ * Must be invalidated whenever a quiz or one of its questions changes; the TTL bounds
+ * staleness from changes made on other nodes.
+ */
+@Component
+public class QuestionPayloadCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.question-cache.max-quizzes:500}")
+    private int maxQuizzes;
+
+    @Value("${quiz.question-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${quiz.question-cache.gzip:true}")
+    private boolean gzip;
+
+    // Smaller payloads are not worth a Content-Encoding
+    @Value("${quiz.question-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Bumped on every invalidation so a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<Long, Cached> payloads;
+
+    /**
+     * Rendered question list. {@code gzipped} is null when compression is off or not
+     * worthwhile; the ETag is a digest of {@code json}. {@code questions} is sorted by id and must
+     * not be modified. {@code drawCount} is the number of questions an attempt draws, 0 for all.
+     */
+    public record Payload(byte[] json, byte[] gzipped, String etag, List<QuestionDTO> questions,
+                          boolean active, boolean shuffled, int drawCount, Long creatorId) {
+        // Strong ETags name exact bytes, so the gzipped representation gets its own
+        public String etag(boolean gzip) {
+            return gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        }
+    }
+
+    // What a loader returns: the list, its rendering and the quiz fields the access check needs
+    public record Rendered(byte[] json, List<QuestionDTO> questions, boolean active, boolean shuffled,
+                           int drawCount, Long creatorId) {
+    }
+
+    private record Cached(Payload payload, long loadedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        payloads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+                return size() > maxQuizzes;
+            }
+        };
+
+        FunctionCounter.builder("quiz.question_cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.question_cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quiz.question_cache.size", this, QuestionPayloadCache::size).register(meterRegistry);
+    }
+
+    public Payload get(Long quizId, Supplier<Rendered> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (payloads) {
+            Cached cached = payloads.get(quizId);
+            if (cached != null && now - cached.loadedAt() < ttlMs) {
+                hits.incrementAndGet();
+                return cached.payload();
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        Rendered rendered = loader.get();
+        byte[] json = rendered.json();
+        Payload payload = new Payload(json, gzip && json.length >= gzipMinBytes ? gzip(json) : null,
+                etagOf(quizId, json), List.copyOf(rendered.questions()), rendered.active(), rendered.shuffled(),
+                rendered.drawCount(), rendered.creatorId());
+
+        synchronized (payloads) {
+            if (generation.get() == loadedAt) {
+                payloads.put(quizId, new Cached(payload, now));
+            }
+        }
+        return payload;
+    }
+
+    public void invalidate(Long quizId) {
+        synchronized (payloads) {
+            generation.incrementAndGet();
+            payloads.remove(quizId);
+        }
+    }
+
+    public int size() {
+        synchronized (payloads) {
+            return payloads.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etagOf(Long quizId, byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"questions-" + quizId + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
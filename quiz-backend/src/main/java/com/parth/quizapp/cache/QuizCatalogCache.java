@@ -0,0 +1,137 @@
+package com.parth.quizapp.cache;
+
+import com.parth.quizapp.Model.Quiz;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the quiz catalog responses polled by dashboards (the active-quiz list and single
+ * quizzes) together with their strong ETags, so an unchanged poll is answered with 304
+ * without a query. ETags are derived from quiz ids and @Version stamps, so every node
+ * computes the same tag for the same data. Must be invalidated whenever a quiz changes;
+ * the TTL bounds staleness from changes made on other nodes.
+ */
+@Component
+public class QuizCatalogCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.catalog-cache.max-quizzes:1000}")
+    private int maxQuizzes;
+
+    @Value("${quiz.catalog-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Bumped on every invalidation so a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<Long, Versioned<?>> quizzes;
+    private Versioned<?> active;
+
+    public record Versioned<T>(T body, String etag, long loadedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        quizzes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Versioned<?>> eldest) {
+                return size() > maxQuizzes;
+            }
+        };
+
+        FunctionCounter.builder("quiz.catalog_cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.catalog_cache.misses", misses, AtomicLong::get).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Versioned<T> getActive(Supplier<Versioned<T>> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (quizzes) {
+            if (active != null && now - active.loadedAt() < ttlMs) {
+                hits.incrementAndGet();
+                return (Versioned<T>) active;
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        Versioned<T> loaded = loader.get();
+        synchronized (quizzes) {
+            if (generation.get() == loadedAt) {
+                active = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Versioned<T> getQuiz(Long quizId, Supplier<Versioned<T>> loader) {
+        long now = System.currentTimeMillis();
+        synchronized (quizzes) {
+            Versioned<?> cached = quizzes.get(quizId);
+            if (cached != null && now - cached.loadedAt() < ttlMs) {
+                hits.incrementAndGet();
+                return (Versioned<T>) cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        Versioned<T> loaded = loader.get();
+        synchronized (quizzes) {
+            if (generation.get() == loadedAt) {
+                quizzes.put(quizId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Drops the quiz and the active list, which may gain, lose or change it
+    public void invalidate(Long quizId) {
+        synchronized (quizzes) {
+            generation.incrementAndGet();
+            if (quizId != null) {
+                quizzes.remove(quizId);
+            }
+            active = null;
+        }
+    }
+
+    public static <T> Versioned<T> versioned(T body, Quiz quiz) {
+        return new Versioned<>(body, "\"quiz-" + quiz.getId() + "-" + quiz.getVersion() + "\"",
+                System.currentTimeMillis());
+    }
+
+    // Hash of every (id, version) pair, so any change to the list or a member changes the tag
+    public static <T> Versioned<T> versioned(T body, List<Quiz> quizzes) {
+        long hash = 1125899906842597L;
+        for (Quiz quiz : quizzes) {
+            hash = 31 * hash + quiz.getId();
+            hash = 31 * hash + quiz.getVersion();
+        }
+        return new Versioned<>(body, "\"active-" + quizzes.size() + "-" + Long.toHexString(hash) + "\"",
+                System.currentTimeMillis());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
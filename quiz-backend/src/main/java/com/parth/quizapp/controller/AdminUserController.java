@@ -0,0 +1,33 @@
+package com.parth.quizapp.controller;
+
+import com.parth.quizapp.dto.RosterImportResultDTO;
+import com.parth.quizapp.service.RosterImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminUserController {
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    // Bulk-register a CSV roster (header: username,password[,role]); safe to re-post after a partial failure
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<RosterImportResultDTO> importCsvRoster(InputStream body) throws IOException {
+        return ResponseEntity.ok(rosterImportService.importCsv(body));
+    }
+
+    // Bulk-register a JSON roster: an array of {username, password, role} or one object per line
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<RosterImportResultDTO> importJsonRoster(InputStream body) throws IOException {
+        return ResponseEntity.ok(rosterImportService.importJson(body));
+    }
+}
@@ -0,0 +1,119 @@
+package com.parth.quizapp.controller;
+
+import com.parth.quizapp.dto.ImageDTO;
+import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.storage.ImageStore;
+import com.parth.quizapp.storage.ImageStore.StoredImage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    // Content never changes under a hash, so clients and proxies may keep it for a year
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private ImageStore imageStore;
+
+    // Upload a question image (raw PNG/JPEG/GIF/WebP body); identical bytes get the same URL
+    @PostMapping(consumes = {"image/png", "image/jpeg", "image/gif", "image/webp"})
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<ImageDTO> uploadImage(InputStream body) throws IOException {
+        StoredImage image = imageStore.store(body);
+        return ResponseEntity.status(image.created() ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(new ImageDTO(image.hash(), image.url(), image.contentType(), image.size()));
+    }
+
+    // Serve an image by content hash (public: the hash is unguessable), with single-range support
+    @GetMapping("/{name}")
+    public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = imageStore.find(name);
+        if (file == null) {
+            throw new ResourceNotFoundException("Image not found");
+        }
+        long length = Files.size(file);
+        String etag = "\"" + ImageStore.hashOf(name) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Several ranges are answered with the whole image, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange requested = ranges.get(0);
+                start = requested.getRangeStart(length);
+                end = requested.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(ImageStore.contentType(name));
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // Tomcat's sendfile hands the file region to the kernel once the response is committed
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+}
@@ -1,23 +1,78 @@
 package com.parth.quizapp.controller;
 
+import com.parth.quizapp.cache.QuestionPayloadCache.Payload;
 import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuestionImportResultDTO;
+import com.parth.quizapp.dto.QuestionSearchHitDTO;
+import com.parth.quizapp.service.QuestionSearchService;
 import com.parth.quizapp.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/questions")
 public class QuestionController {
     @Autowired
     private QuestionService questionService;
-    // Get questions for a quiz (without answers - for students)
+    @Autowired
+    private QuestionSearchService questionSearchService;
+    // Get questions for a quiz (without answers - for students), written from the pre-rendered cache
     @GetMapping("/quiz/{quizId}")
-    public ResponseEntity<List<QuestionDTO>> getQuestionsByQuizId(@PathVariable Long quizId) {
-        return ResponseEntity.ok(questionService.getQuestionsByQuizId(quizId));
+    public ResponseEntity<byte[]> getQuestionsByQuizId(
+            @PathVariable Long quizId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Payload payload = questionService.getQuestionsPayload(quizId);
+        boolean gzip = payload.gzipped() != null && acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.etag(gzip))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? payload.gzipped() : payload.json());
+    }
+    // Whether Accept-Encoding allows gzip: listed (or covered by *) with a q-value above 0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Float gzip = null;
+        Float wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            float q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                    try {
+                        q = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                wildcard = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return wildcard != null && wildcard > 0;
     }
     // Get questions with answers (for teachers/admin)
     @GetMapping("/quiz/{quizId}/with-answers")
@@ -25,6 +80,14 @@ public class QuestionController {
     public ResponseEntity<List<QuestionDTO>> getQuestionsWithAnswersByQuizId(@PathVariable Long quizId) {
         return ResponseEntity.ok(questionService.getQuestionsWithAnswersByQuizId(quizId));
     }
+    // Search the whole question bank by text, best matches first (teachers/admin)
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<QuestionSearchHitDTO>> searchQuestions(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(questionSearchService.search(query, limit));
+    }
     // Get question by ID (without answer)
     @GetMapping("/{questionId}")
     public ResponseEntity<QuestionDTO> getQuestionById(@PathVariable Long questionId) {
@@ -65,10 +128,23 @@ public class QuestionController {
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
     public ResponseEntity<List<QuestionDTO>> addQuestionsBulk(
             @PathVariable Long quizId,
-            @RequestBody List<QuestionDTO> questionDTOs) {
-        List<QuestionDTO> savedQuestions = questionDTOs.stream()
-                .map(questionDTO -> questionService.addQuestion(quizId, questionDTO))
-                .toList();
-        return ResponseEntity.ok(savedQuestions);
+            @RequestBody List<QuestionDTO> questionDTOs) throws IOException {
+        return ResponseEntity.ok(questionService.addQuestionsBulk(quizId, questionDTOs));
+    }
+    // Import a streamed CSV question bank (header: content,image,option1..option4,answer); all or nothing
+    @PostMapping(value = "/quiz/{quizId}/import", consumes = "text/csv")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<QuestionImportResultDTO> importQuestionsCsv(
+            @PathVariable Long quizId,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(questionService.importQuestionsCsv(quizId, body));
+    }
+    // Import a streamed JSON question bank (array or one question per line); all or nothing
+    @PostMapping(value = "/quiz/{quizId}/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<QuestionImportResultDTO> importQuestionsJson(
+            @PathVariable Long quizId,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(questionService.importQuestionsJson(quizId, body));
     }
 }
\ No newline at end of file
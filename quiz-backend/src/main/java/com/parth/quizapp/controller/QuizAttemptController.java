@@ -1,13 +1,20 @@
 package com.parth.quizapp.controller;
 
 import com.parth.quizapp.dto.*;
+import com.parth.quizapp.service.QuestionService;
 import com.parth.quizapp.service.QuizAttemptService;
+import com.parth.quizapp.service.ResultExportService;
+import com.parth.quizapp.service.SubmissionIngestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/quiz-attempts")
@@ -16,6 +23,15 @@ public class QuizAttemptController {
     @Autowired
     private QuizAttemptService quizAttemptService;
 
+    @Autowired
+    private SubmissionIngestService submissionIngestService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private ResultExportService resultExportService;
+
     // Start a quiz attempt (for students)
     @PostMapping("/start/{quizId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
@@ -24,6 +40,23 @@ public class QuizAttemptController {
         return ResponseEntity.ok(attempt);
     }
 
+    // Get the attempt's questions in its own order (shuffled per attempt when the quiz enables it)
+    @GetMapping("/{attemptId}/questions")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
+    public ResponseEntity<List<QuestionDTO>> getAttemptQuestions(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(questionService.getAttemptQuestions(attemptId));
+    }
+
+    // Autosave in-progress answers (merged into the final submission)
+    @PatchMapping("/{attemptId}/answers")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
+    public ResponseEntity<Void> saveDraftAnswers(
+            @PathVariable Long attemptId,
+            @RequestBody Map<Long, String> answers) {
+        quizAttemptService.saveDraftAnswers(attemptId, answers);
+        return ResponseEntity.ok().build();
+    }
+
     // Submit quiz answers and get results
     @PostMapping("/submit")
     @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
@@ -32,6 +65,21 @@ public class QuizAttemptController {
         return ResponseEntity.ok(result);
     }
 
+    // Accept quiz answers for background grading (poll /status/{attemptId}, then /result/{attemptId})
+    @PostMapping("/submit/async")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
+    public ResponseEntity<SubmissionStatusDTO> submitQuizAsync(@RequestBody QuizSubmissionDTO submissionDTO) {
+        SubmissionStatusDTO status = submissionIngestService.accept(submissionDTO);
+        return ResponseEntity.accepted().body(status);
+    }
+
+    // Get grading status of a submitted attempt
+    @GetMapping("/status/{attemptId}")
+    public ResponseEntity<SubmissionStatusDTO> getSubmissionStatus(@PathVariable Long attemptId) {
+        SubmissionStatusDTO status = submissionIngestService.getStatus(attemptId);
+        return ResponseEntity.ok(status);
+    }
+
     // Get specific quiz result by attempt ID
     @GetMapping("/result/{attemptId}")
     public ResponseEntity<QuizResultDTO> getQuizResult(@PathVariable Long attemptId) {
@@ -39,6 +87,12 @@ public class QuizAttemptController {
         return ResponseEntity.ok(result);
     }
 
+    // Get leaderboard position of an attempt
+    @GetMapping("/rank/{attemptId}")
+    public ResponseEntity<LeaderboardEntryDTO> getAttemptRank(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(quizAttemptService.getAttemptRank(attemptId));
+    }
+
     // Get all quiz attempts for current student
     @GetMapping("/my-attempts")
     @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
@@ -55,6 +109,14 @@ public class QuizAttemptController {
         return ResponseEntity.ok(results);
     }
 
+    // Page through quiz results for quizzes created by current teacher
+    // (?cursor=&size=&sort=asc|desc&completed=&from=&to=)
+    @GetMapping("/my-quiz-results/page")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<CursorPageDTO<QuizAttemptDTO>> getQuizResultsForMyQuizzesPage(PageQuery pageQuery) {
+        return ResponseEntity.ok(quizAttemptService.getQuizResultsForMyQuizzesPage(pageQuery));
+    }
+
     // Get all attempts for a specific quiz (for teachers to see who took their quiz)
     @GetMapping("/quiz/{quizId}/attempts")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
@@ -62,4 +124,41 @@ public class QuizAttemptController {
         List<QuizAttemptDTO> attempts = quizAttemptService.getQuizAttempts(quizId);
         return ResponseEntity.ok(attempts);
     }
-}
\ No newline at end of file
+
+    // Page through attempts for a specific quiz (?cursor=&size=&sort=asc|desc&completed=&from=&to=)
+    @GetMapping("/quiz/{quizId}/attempts/page")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<CursorPageDTO<QuizAttemptDTO>> getQuizAttemptsPage(
+            @PathVariable Long quizId,
+            PageQuery pageQuery) {
+        return ResponseEntity.ok(quizAttemptService.getQuizAttemptsPage(quizId, pageQuery));
+    }
+
+    // Get the top-ranked attempts of a quiz (?limit=, at most 100)
+    @GetMapping("/quiz/{quizId}/leaderboard")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboard(
+            @PathVariable Long quizId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(quizAttemptService.getLeaderboard(quizId, limit));
+    }
+
+    // Download all completed attempts of a quiz (?format=csv|ndjson&includeAnswers=true)
+    @GetMapping("/quiz/{quizId}/export")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportQuizResults(
+            @PathVariable Long quizId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean includeAnswers) {
+        ResultExportService.Format exportFormat = ResultExportService.parseFormat(format);
+        resultExportService.checkCanExport(quizId);
+
+        boolean csv = exportFormat == ResultExportService.Format.CSV;
+        StreamingResponseBody body = out -> resultExportService.export(quizId, exportFormat, includeAnswers, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"quiz-" + quizId + "-results." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -1,8 +1,17 @@
 package com.parth.quizapp.controller;
 
+import com.parth.quizapp.cache.QuizCatalogCache.Versioned;
+import com.parth.quizapp.dto.CursorPageDTO;
+import com.parth.quizapp.dto.ItemAnalysisDTO;
+import com.parth.quizapp.dto.PageQuery;
 import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.dto.QuizStatisticsDTO;
+import com.parth.quizapp.service.ItemAnalysisService;
+import com.parth.quizapp.service.QuizAttemptService;
 import com.parth.quizapp.service.QuizService;
+import com.parth.quizapp.service.QuizStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +24,15 @@ public class QuizController {
     @Autowired
     private QuizService quizService;
 
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
     // Get all quizzes (admin only)
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -22,10 +40,17 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getAllQuizzes());
     }
 
-    // Get active quizzes (available to all authenticated users)
+    // Page through all quizzes (?cursor=&size=&sort=asc|desc&active=&from=&to=, admin only)
+    @GetMapping("/all/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDTO<QuizDTO>> getAllQuizzesPage(PageQuery pageQuery) {
+        return ResponseEntity.ok(quizService.getAllQuizzesPage(pageQuery));
+    }
+
+    // Get active quizzes (available to all authenticated users); 304 when If-None-Match still matches
     @GetMapping("/active")
     public ResponseEntity<List<QuizDTO>> getActiveQuizzes() {
-        return ResponseEntity.ok(quizService.getActiveQuizzes());
+        return revalidated(quizService.getActiveQuizzesVersioned());
     }
 
     // Get quizzes created by current user (teacher/admin)
@@ -35,10 +60,10 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getMyQuizzes());
     }
 
-    // Get quiz by ID
+    // Get quiz by ID; 304 when If-None-Match still matches
     @GetMapping("/{quizId}")
     public ResponseEntity<QuizDTO> getQuizById(@PathVariable Long quizId) {
-        return ResponseEntity.ok(quizService.getQuizById(quizId));
+        return revalidated(quizService.getQuizByIdVersioned(quizId));
     }
 
     // Create new quiz (teacher/admin)
@@ -71,4 +96,33 @@ public class QuizController {
     public ResponseEntity<QuizDTO> toggleQuizActiveStatus(@PathVariable Long quizId) {
         return ResponseEntity.ok(quizService.toggleQuizActiveStatus(quizId));
     }
-}
\ No newline at end of file
+
+    // Get score statistics for a quiz (owner or admin)
+    @GetMapping("/{quizId}/stats")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<QuizStatisticsDTO> getQuizStatistics(@PathVariable Long quizId) {
+        return ResponseEntity.ok(quizAttemptService.getQuizStatistics(quizId));
+    }
+
+    // Recompute score statistics from the stored attempts (admin only)
+    @PostMapping("/{quizId}/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<QuizStatisticsDTO> rebuildQuizStatistics(@PathVariable Long quizId) {
+        return ResponseEntity.ok(quizStatisticsService.rebuild(quizId));
+    }
+
+    // Get per-question difficulty, discrimination and distractor counts (owner or admin)
+    @GetMapping("/{quizId}/item-analysis")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<ItemAnalysisDTO> getItemAnalysis(@PathVariable Long quizId) {
+        return ResponseEntity.ok(itemAnalysisService.getItemAnalysis(quizId));
+    }
+
+    // Spring answers 304 itself when the request's If-None-Match matches this ETag
+    private static <T> ResponseEntity<T> revalidated(Versioned<T> versioned) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(versioned.etag())
+                .body(versioned.body());
+    }
+}
@@ -0,0 +1,96 @@
+package com.parth.quizapp.datasource;
+
+import com.parth.quizapp.Model.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-your-writes on top of replica routing: a user whose last write committed less than
+ * quiz.datasource.pin-after-write-ms ago keeps reading from the primary, so e.g. a result
+ * read right after submitting does not miss the attempt while the replica catches up.
+ * Bounded LRU by user id; evicting a user only ends their pin early.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.datasource.pin-after-write-ms:5000}")
+    private long pinAfterWriteMs;
+
+    @Value("${quiz.datasource.pinned-users-max:10000}")
+    private int maxUsers;
+
+    // User id to System.nanoTime() of their last committed write
+    private Map<Long, Long> lastWrites;
+
+    @PostConstruct
+    void init() {
+        lastWrites = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxUsers;
+            }
+        };
+
+        Gauge.builder("quiz.datasource.pinned_users", this, ReplicaLagGuard::size).register(meterRegistry);
+    }
+
+    // Pins the user once the current transaction commits (immediately outside one)
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pin(userId);
+                }
+            });
+        } else {
+            pin(userId);
+        }
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long writtenAt;
+        synchronized (lastWrites) {
+            writtenAt = lastWrites.get(userId);
+        }
+        return writtenAt != null && System.nanoTime() - writtenAt < pinAfterWriteMs * 1_000_000;
+    }
+
+    // Id of the authenticated user on this thread, if any
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+
+    public int size() {
+        synchronized (lastWrites) {
+            return lastWrites.size();
+        }
+    }
+
+    private void pin(Long userId) {
+        synchronized (lastWrites) {
+            lastWrites.put(userId, System.nanoTime());
+        }
+    }
+}
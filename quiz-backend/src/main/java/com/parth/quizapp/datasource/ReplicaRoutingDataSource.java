@@ -0,0 +1,60 @@
+package com.parth.quizapp.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions opened by our own code (services'
+ * {@code @Transactional(readOnly = true)}, read-only TransactionTemplates) to the replica and
+ * everything else to the primary. Spring Data wraps each repository call made outside a
+ * transaction in a read-only transaction of its own; those reads often fill a cache or precede
+ * a write, so they stay on the primary. Users pinned by {@link ReplicaLagGuard} also stay on
+ * the primary, and read-write transactions pin their user once they commit.
+ * <p>
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is only
+ * set after the transaction manager has asked for its connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    // Name Spring gives the transactions it opens around repository methods
+    private static final String REPOSITORY_TRANSACTION_PREFIX = "org.springframework.data.";
+
+    private final ReplicaLagGuard lagGuard;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(ReplicaLagGuard lagGuard, MeterRegistry meterRegistry) {
+        this.lagGuard = lagGuard;
+        this.primaryConnections = meterRegistry.counter("quiz.datasource.connections", "target", "primary");
+        this.replicaConnections = meterRegistry.counter("quiz.datasource.connections", "target", "replica");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = currentTarget();
+        (target == Target.REPLICA ? replicaConnections : primaryConnections).increment();
+        return target;
+    }
+
+    Target currentTarget() {
+        Long userId = ReplicaLagGuard.currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                lagGuard.recordWrite(userId);
+            }
+            return Target.PRIMARY;
+        }
+
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if ((name != null && name.startsWith(REPOSITORY_TRANSACTION_PREFIX)) || lagGuard.isPinned(userId)) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,16 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDTO {
+    private String hash;
+    // Value to put in QuestionDTO.image
+    private String url;
+    private String contentType;
+    private long size;
+}
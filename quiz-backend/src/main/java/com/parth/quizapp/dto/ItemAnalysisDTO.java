@@ -0,0 +1,16 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnalysisDTO {
+    private Long quizId;
+    private long attempts;
+    private List<QuestionAnalysisDTO> questions;
+}
@@ -0,0 +1,21 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+    private int rank;
+    // Completed attempts ranked for the quiz
+    private int participants;
+    private Long attemptId;
+    private String studentName;
+    private int score;
+    private int totalMarks;
+    private LocalDateTime completedAt;
+}
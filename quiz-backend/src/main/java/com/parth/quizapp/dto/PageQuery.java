@@ -0,0 +1,39 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageQuery {
+    public static final int MAX_SIZE = 100;
+
+    private String cursor;
+    private int size = 20;
+    private String sort = "desc";
+    private Boolean completed;
+    private Boolean active;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    public int limit() {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public boolean isAscending() {
+        if ("asc".equalsIgnoreCase(sort)) {
+            return true;
+        }
+        if (sort == null || "desc".equalsIgnoreCase(sort)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Sort must be 'asc' or 'desc'");
+    }
+}
@@ -0,0 +1,22 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionAnalysisDTO {
+    private Long questionId;
+    private long responses;
+    // Share of responders answering correctly (p-value)
+    private double difficulty;
+    // Point-biserial correlation with attempt score; null when every or no responder was correct
+    private Double discrimination;
+    private String correctAnswer;
+    // Times each of option1..option4 was chosen
+    private long[] optionCounts;
+    // Blank or unrecognised answers
+    private long omitted;
+}
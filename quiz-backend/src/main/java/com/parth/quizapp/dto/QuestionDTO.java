@@ -17,4 +17,5 @@ public class QuestionDTO {
     private String option4;
     private String answer;
     private Long quizId;
+    private String tag;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionSearchHitDTO {
+    private Long id;
+    private Long quizId;
+    private float score;
+    private String content;
+    private String image;
+    private String option1;
+    private String option2;
+    private String option3;
+    private String option4;
+}
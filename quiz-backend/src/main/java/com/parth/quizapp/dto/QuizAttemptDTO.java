@@ -23,4 +23,8 @@ public class QuizAttemptDTO {
     private LocalDateTime endTime;
     private boolean completed;
     private double percentage;
+    // Share of the class scoring below this attempt (ties count half), and class median/90th percentile score
+    private Double percentile;
+    private Double classMedian;
+    private Double classP90;
 }
\ No newline at end of file
@@ -15,4 +15,6 @@ public class QuizDTO {
     private int maxMarks;
     private int numberOfQuestions;
     private boolean active;
+    private boolean shuffleQuestions;
+    private boolean questionPool;
 }
\ No newline at end of file
@@ -21,4 +21,10 @@ public class QuizResultDTO {
     private double percentage;
     private LocalDateTime completedAt;
     private List<QuestionResultDTO> questionResults;
+    // Position on the quiz leaderboard (1 = best)
+    private Integer rank;
+    // Share of the class scoring below this attempt (ties count half), and class median/90th percentile score
+    private Double percentile;
+    private Double classMedian;
+    private Double classP90;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizStatisticsDTO {
+    private Long quizId;
+    private long attemptCount;
+    private double averageScore;
+    private double standardDeviation;
+    private Integer minScore;
+    private Integer maxScore;
+    // Share of attempts scoring at least the pass percentage
+    private double passRate;
+    // Attempt counts per 10% band of total marks, 0-10% first
+    private int[] histogram;
+    // Estimated from the score sketch
+    private Double median;
+    private Double p90;
+}
@@ -12,4 +12,10 @@ import java.util.Map;
 public class QuizSubmissionDTO {
     private Long quizId;
     private Map<Long, String> answers;
+    // From /start; required by /submit/async, ignored by /submit
+    private Long attemptId;
+
+    public QuizSubmissionDTO(Long quizId, Map<Long, String> answers) {
+        this(quizId, answers, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterImportResultDTO {
+    private int total;
+    private int created;
+    private int skipped;
+    private int invalid;
+    private List<RosterRowResultDTO> rows;
+}
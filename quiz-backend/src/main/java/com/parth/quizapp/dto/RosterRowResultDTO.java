@@ -0,0 +1,23 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterRowResultDTO {
+
+    public enum Status {
+        CREATED,
+        EXISTS,      // username already registered, e.g. by an earlier run of the same roster
+        DUPLICATE,   // username repeated earlier in this roster
+        INVALID
+    }
+
+    private int row;
+    private String username;
+    private Status status;
+    private String message;
+}
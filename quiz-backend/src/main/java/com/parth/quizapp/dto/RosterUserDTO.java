@@ -0,0 +1,14 @@
+package com.parth.quizapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterUserDTO {
+    private String username;
+    private String password;
+    private String role;
+}
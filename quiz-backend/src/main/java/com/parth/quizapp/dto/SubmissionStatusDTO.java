@@ -0,0 +1,15 @@
+package com.parth.quizapp.dto;
+
+import com.parth.quizapp.ingest.SubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionStatusDTO {
+    private Long attemptId;
+    private SubmissionStatus status;
+    private String message;
+}
@@ -0,0 +1,152 @@
+package com.parth.quizapp.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of accepted quiz submissions.
+ *
+ * Record layout: [int length][byte status][long attemptId][long studentId][long quizId][int crc][payload].
+ * A zero length marks the end of the log. Drained records are flipped in place, and the
+ * whole file is recycled once nothing is pending.
+ */
+public class SubmissionJournal implements Closeable {
+
+    public static final byte PENDING = 1;
+    public static final byte DRAINED = 2;
+
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 8 + 4;
+    private static final int STATUS_OFFSET = 4;
+    private static final byte[] ZEROES = new byte[4096];
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final boolean forceOnAppend;
+    private int position;
+    private int pendingCount;
+
+    public record Entry(int offset, long attemptId, long studentId, long quizId, byte[] payload) {
+    }
+
+    public SubmissionJournal(Path path, int capacity, boolean forceOnAppend) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.forceOnAppend = forceOnAppend;
+        recover();
+    }
+
+    // Finds the end of the log, truncating at the first torn or corrupt record
+    private void recover() {
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length < HEADER_SIZE || offset + length > buffer.capacity() || !checksumMatches(offset, length)) {
+                break;
+            }
+            if (buffer.get(offset + STATUS_OFFSET) == PENDING) {
+                pendingCount++;
+            }
+            offset += length;
+        }
+        position = offset;
+        zero(position, Math.min(buffer.capacity(), position + HEADER_SIZE));
+    }
+
+    public synchronized int append(long attemptId, long studentId, long quizId, byte[] payload) {
+        int length = HEADER_SIZE + payload.length;
+        if (position + length > buffer.capacity()) {
+            throw new IllegalStateException("Submission journal is full");
+        }
+
+        int offset = position;
+        buffer.put(offset + STATUS_OFFSET, PENDING);
+        buffer.putLong(offset + 5, attemptId);
+        buffer.putLong(offset + 13, studentId);
+        buffer.putLong(offset + 21, quizId);
+        buffer.putInt(offset + 29, crc(payload));
+        buffer.put(offset + HEADER_SIZE, payload);
+        // Length goes last so a partially written record is never seen as complete
+        buffer.putInt(offset, length);
+
+        if (forceOnAppend) {
+            buffer.force(offset, length);
+        }
+        position += length;
+        pendingCount++;
+        return offset;
+    }
+
+    public synchronized void markDrained(int offset) {
+        if (buffer.get(offset + STATUS_OFFSET) != PENDING) {
+            return;
+        }
+        buffer.put(offset + STATUS_OFFSET, DRAINED);
+        pendingCount--;
+
+        // Recycle the file once everything written so far has reached the database
+        if (pendingCount == 0) {
+            zero(0, position);
+            position = 0;
+            buffer.force();
+        }
+    }
+
+    public synchronized List<Entry> pendingEntries() {
+        List<Entry> entries = new ArrayList<>();
+        int offset = 0;
+        while (offset < position) {
+            int length = buffer.getInt(offset);
+            if (buffer.get(offset + STATUS_OFFSET) == PENDING) {
+                byte[] payload = new byte[length - HEADER_SIZE];
+                buffer.get(offset + HEADER_SIZE, payload);
+                entries.add(new Entry(offset,
+                        buffer.getLong(offset + 5),
+                        buffer.getLong(offset + 13),
+                        buffer.getLong(offset + 21),
+                        payload));
+            }
+            offset += length;
+        }
+        return entries;
+    }
+
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    private boolean checksumMatches(int offset, int length) {
+        byte[] payload = new byte[length - HEADER_SIZE];
+        buffer.get(offset + HEADER_SIZE, payload);
+        return buffer.getInt(offset + 29) == crc(payload);
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void zero(int from, int to) {
+        for (int i = from; i < to; i += ZEROES.length) {
+            buffer.put(i, ZEROES, 0, Math.min(ZEROES.length, to - i));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
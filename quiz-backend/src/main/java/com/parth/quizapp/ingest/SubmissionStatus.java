@@ -0,0 +1,8 @@
+package com.parth.quizapp.ingest;
+
+public enum SubmissionStatus {
+    IN_PROGRESS,
+    ACCEPTED,
+    COMPLETED,
+    FAILED
+}
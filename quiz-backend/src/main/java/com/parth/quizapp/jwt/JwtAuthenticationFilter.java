@@ -1,15 +1,19 @@
 package com.parth.quizapp.jwt;
 
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.cache.PrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,7 +27,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
+
+    // "cache": principal from PrincipalCache; "claims": built from the verified token alone,
+    // so role changes and deletions only take effect when the token expires
+    @Value("${quiz.security.principal-mode:cache}")
+    private String principalMode;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +41,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
+        final JwtService.VerifiedToken token;
         final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -40,13 +49,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Verified once; the same token on later requests is served from JwtService's cache
+        token = jwtService.verify(authHeader.substring(7));
+        username = token.subject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadPrincipal(token, username);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -58,4 +68,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails loadPrincipal(JwtService.VerifiedToken token, String username) {
+        if ("claims".equals(principalMode)) {
+            User user = principalFromClaims(token.claims());
+            if (user != null) {
+                return user;
+            }
+            // Tokens issued before the uid claim existed
+        }
+        return principalCache.get(username);
+    }
+
+    static User principalFromClaims(Claims claims) {
+        Number id = claims.get("uid", Number.class);
+        String role = claims.get("role", String.class);
+        if (id == null || role == null || !role.startsWith("ROLE_")) {
+            return null;
+        }
+        return User.builder()
+                .id(id.longValue())
+                .username(claims.getSubject())
+                .role(Role.valueOf(role.substring("ROLE_".length())))
+                .build();
+    }
+}
@@ -1,18 +1,30 @@
 package com.parth.quizapp.jwt;
 
+import com.parth.quizapp.Model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.security.DigestException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Service
@@ -24,18 +36,101 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Key signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of the compact token -> claims already verified under signingKey
+    private Map<TokenDigest, VerifiedToken> verified;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static final ThreadLocal<TokenHasher> HASHER = ThreadLocal.withInitial(TokenHasher::new);
+
+    /**
+     * Claims of a token whose signature has been checked. Shared between requests presenting
+     * the same token, so callers must treat {@link #claims()} as read-only.
+     */
+    public record VerifiedToken(String subject, long expiresAt, Claims claims) {
+        public boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private record TokenDigest(long a, long b, long c, long d) {
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenDigest, VerifiedToken> eldest) {
+                return size() > verifiedCacheMaxSize;
+            }
+        };
+
+        FunctionCounter.builder("quiz.jwt_cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("quiz.jwt_cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quiz.jwt_cache.size", this, JwtService::verifiedCacheSize).register(meterRegistry);
+    }
+
+    /**
+     * Parses and verifies the token once. A token seen recently is served from the cache
+     * without re-checking its signature; expired tokens are never served from it and fail
+     * with the usual {@link io.jsonwebtoken.ExpiredJwtException}.
+     */
+    public VerifiedToken verify(String token) {
+        TokenDigest digest = HASHER.get().digest(token);
+        if (digest == null) {
+            return toVerified(parser.parseClaimsJws(token).getBody());
+        }
+        long now = System.currentTimeMillis();
+        synchronized (verified) {
+            VerifiedToken cached = verified.get(digest);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    hits.incrementAndGet();
+                    return cached;
+                }
+                verified.remove(digest);
+            }
+        }
+
+        misses.incrementAndGet();
+        VerifiedToken result = toVerified(parser.parseClaimsJws(token).getBody());
+        synchronized (verified) {
+            verified.put(digest, result);
+        }
+        return result;
+    }
+
+    private static VerifiedToken toVerified(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(claims.getSubject(),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime(), claims);
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", userDetails.getAuthorities().iterator().next().getAuthority());
+        if (userDetails instanceof User user) {
+            extraClaims.put("uid", user.getId());
+        }
         return generateToken(extraClaims, userDetails);
     }
 
@@ -46,34 +141,75 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired(System.currentTimeMillis());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public int verifiedCacheSize() {
+        synchronized (verified) {
+            return verified.size();
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public long getCacheHits() {
+        return hits.get();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    // Per-thread digest and scratch buffers, so a cache hit allocates only the map key
+    private static final class TokenHasher {
+        private final MessageDigest sha256;
+        private final byte[] out = new byte[32];
+        private byte[] in = new byte[512];
+
+        private TokenHasher() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Null for non-ASCII input, which must not share a digest with its truncated bytes
+        private TokenDigest digest(String token) {
+            int length = token.length();
+            if (in.length < length) {
+                in = new byte[Math.max(length, in.length * 2)];
+            }
+            // Compact JWS is base64url plus dots; anything else cannot be a valid token
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c > 0x7F) {
+                    return null;
+                }
+                in[i] = (byte) c;
+            }
+            sha256.update(in, 0, length);
+            try {
+                sha256.digest(out, 0, out.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return new TokenDigest(readLong(0), readLong(8), readLong(16), readLong(24));
+        }
+
+        private long readLong(int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (out[i] & 0xFF);
+            }
+            return value;
+        }
     }
-}
\ No newline at end of file
+}
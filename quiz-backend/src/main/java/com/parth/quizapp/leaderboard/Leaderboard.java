@@ -0,0 +1,43 @@
+package com.parth.quizapp.leaderboard;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Completed attempts of one quiz in rank order: higher score first, then earlier finish,
+ * then lower attempt id. Thread-safe.
+ */
+public final class Leaderboard {
+
+    public record Entry(long attemptId, String studentName, int score, int totalMarks, LocalDateTime endTime) {
+    }
+
+    private static final Comparator<Entry> RANK_ORDER = Comparator
+            .comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::endTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(Entry::attemptId);
+
+    private final RankedSkipList<Entry> entries = new RankedSkipList<>(RANK_ORDER);
+
+    public synchronized boolean add(Entry entry) {
+        return entries.add(entry);
+    }
+
+    public synchronized boolean remove(Entry entry) {
+        return entries.remove(entry);
+    }
+
+    // 1-based rank the entry has, or would have if it were added now
+    public synchronized int rankOf(Entry entry) {
+        return entries.countBefore(entry) + 1;
+    }
+
+    public synchronized List<Entry> top(int limit) {
+        return entries.range(0, limit);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,179 @@
+package com.parth.quizapp.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list whose links carry the number of elements they skip, so inserting, removing,
+ * ranking an element and fetching the element at a position are all O(log n) expected.
+ * Elements comparing equal are stored once. Not thread-safe.
+ */
+public final class RankedSkipList<E> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node<E> {
+        private final E value;
+        private final Node<E>[] next;
+        // span[i]: how many level-0 steps next[i] jumps over
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(E value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final Node<E> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public RankedSkipList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns false if an equal element is already present
+    public boolean add(E value) {
+        @SuppressWarnings("unchecked")
+        Node<E>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        if (x.next[0] != null && comparator.compare(x.next[0].value, value) == 0) {
+            return false;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node<E> node = new Node<>(value, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = newLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(E value) {
+        @SuppressWarnings("unchecked")
+        Node<E>[] update = new Node[MAX_LEVEL];
+
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node<E> target = x.next[0];
+        if (target == null || comparator.compare(target.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    // Number of elements ordered strictly before value, whether or not value is present
+    public int countBefore(E value) {
+        int rank = 0;
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    // Element at a zero-based position
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int traversed = 0;
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= index + 1) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == index + 1) {
+                return x.value;
+            }
+        }
+        throw new IllegalStateException("Corrupt skip list spans");
+    }
+
+    // Up to limit elements starting at a zero-based position
+    public List<E> range(int from, int limit) {
+        List<E> values = new ArrayList<>(Math.max(0, Math.min(limit, size - from)));
+        if (from >= size || limit <= 0) {
+            return values;
+        }
+        int traversed = 0;
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= from + 1) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        while (x != null && values.size() < limit) {
+            values.add(x.value);
+            x = x.next[0];
+        }
+        return values;
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+}
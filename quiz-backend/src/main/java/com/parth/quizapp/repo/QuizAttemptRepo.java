@@ -3,16 +3,103 @@ package com.parth.quizapp.repo;
 import com.parth.quizapp.Model.Quiz;
 import com.parth.quizapp.Model.QuizAttempt;
 import com.parth.quizapp.Model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface QuizAttemptRepo extends JpaRepository<QuizAttempt, Long> {
+
+    // Flat view of an attempt with just the columns result and listing pages need
+    interface AttemptSummary {
+        Long getId();
+        Long getQuizId();
+        String getQuizTitle();
+        Long getStudentId();
+        String getStudentUsername();
+        Long getCreatorId();
+        Long getTeacherId();
+        int getScore();
+        int getTotalMarks();
+        int getCorrectAnswers();
+        int getTotalQuestions();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+        boolean isCompleted();
+    }
+
+    String SUMMARY_SELECT = "SELECT qa.id AS id, q.id AS quizId, q.title AS quizTitle, " +
+            "s.id AS studentId, s.username AS studentUsername, " +
+            "q.creator.id AS creatorId, q.teacher.id AS teacherId, " +
+            "qa.score AS score, qa.totalMarks AS totalMarks, qa.correctAnswers AS correctAnswers, " +
+            "qa.totalQuestions AS totalQuestions, qa.startTime AS startTime, qa.endTime AS endTime, " +
+            "qa.completed AS completed " +
+            "FROM QuizAttempt qa JOIN qa.quiz q JOIN qa.student s ";
+
+    @Query(SUMMARY_SELECT + "WHERE qa.id = :attemptId")
+    Optional<AttemptSummary> findSummaryById(@Param("attemptId") Long attemptId);
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :studentId AND qa.completed = true")
+    List<AttemptSummary> findCompletedSummariesByStudent(@Param("studentId") Long studentId);
+
+    @Query(SUMMARY_SELECT + "WHERE qa.completed = true AND (q.creator.id = :teacherId OR q.teacher.id = :teacherId)")
+    List<AttemptSummary> findCompletedSummariesByTeacher(@Param("teacherId") Long teacherId);
+
+    @Query(SUMMARY_SELECT + "WHERE q.id = :quizId AND qa.completed = true")
+    List<AttemptSummary> findCompletedSummariesByQuiz(@Param("quizId") Long quizId);
+
+    // Keyset pages ordered by (startTime, id); a null cursor starts from the first row
+    String PAGE_FILTER = "AND (:completed IS NULL OR qa.completed = :completed) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR qa.startTime >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR qa.startTime < :to) ";
+    String AFTER_DESC = "AND (CAST(:cursorTime AS LocalDateTime) IS NULL OR qa.startTime < :cursorTime " +
+            "OR (qa.startTime = :cursorTime AND qa.id < :cursorId)) ORDER BY qa.startTime DESC, qa.id DESC";
+    String AFTER_ASC = "AND (CAST(:cursorTime AS LocalDateTime) IS NULL OR qa.startTime > :cursorTime " +
+            "OR (qa.startTime = :cursorTime AND qa.id > :cursorId)) ORDER BY qa.startTime ASC, qa.id ASC";
+
+    @Query(SUMMARY_SELECT + "WHERE q.id = :quizId " + PAGE_FILTER + AFTER_DESC)
+    List<AttemptSummary> findSummaryPageByQuizDesc(@Param("quizId") Long quizId,
+                                                   @Param("completed") Boolean completed,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("cursorTime") LocalDateTime cursorTime,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE q.id = :quizId " + PAGE_FILTER + AFTER_ASC)
+    List<AttemptSummary> findSummaryPageByQuizAsc(@Param("quizId") Long quizId,
+                                                  @Param("completed") Boolean completed,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("cursorTime") LocalDateTime cursorTime,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE (q.creator.id = :teacherId OR q.teacher.id = :teacherId) " + PAGE_FILTER + AFTER_DESC)
+    List<AttemptSummary> findSummaryPageByTeacherDesc(@Param("teacherId") Long teacherId,
+                                                      @Param("completed") Boolean completed,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to,
+                                                      @Param("cursorTime") LocalDateTime cursorTime,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE (q.creator.id = :teacherId OR q.teacher.id = :teacherId) " + PAGE_FILTER + AFTER_ASC)
+    List<AttemptSummary> findSummaryPageByTeacherAsc(@Param("teacherId") Long teacherId,
+                                                     @Param("completed") Boolean completed,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("cursorTime") LocalDateTime cursorTime,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Limit limit);
+
     List<QuizAttempt> findByStudent(User student);
     List<QuizAttempt> findByQuiz(Quiz quiz);
     List<QuizAttempt> findByStudentAndCompleted(User student, boolean completed);
@@ -20,10 +107,32 @@ public interface QuizAttemptRepo extends JpaRepository<QuizAttempt, Long> {
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.quiz IN :quizzes")
     List<QuizAttempt> findByQuizIn(@Param("quizzes") List<Quiz> quizzes);
 
+    // Callers already hold the quiz; the student is needed for the returned DTO
+    @EntityGraph("QuizAttempt.student")
     Optional<QuizAttempt> findByStudentAndQuizAndCompleted(User student, Quiz quiz, boolean completed);
 
+    // Everything grading an ingested submission reads
+    @EntityGraph("QuizAttempt.quizAndStudent")
+    Optional<QuizAttempt> findWithQuizAndStudentById(Long id);
+
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.quiz.creator = :teacher OR qa.quiz.teacher = :teacher")
     List<QuizAttempt> findByTeacher(@Param("teacher") User teacher);
 
     boolean existsByStudentAndQuizAndCompleted(User student, Quiz quiz, boolean completed);
-}
\ No newline at end of file
+
+    // Whether any attempt at the quiz is in progress (pooled draws must not change under it)
+    boolean existsByQuizIdAndCompletedFalse(Long quizId);
+
+    @Query("SELECT qa.student.id, qa.completed, qa.draftAnswers, qa.quiz.id FROM QuizAttempt qa WHERE qa.id = :attemptId")
+    List<Object[]> findDraftState(@Param("attemptId") Long attemptId);
+
+    // Distinct (score, totalMarks, count) groups of completed attempts, for rebuilding QuizStatistics
+    @Query("SELECT qa.score, qa.totalMarks, COUNT(qa) FROM QuizAttempt qa " +
+            "WHERE qa.quiz.id = :quizId AND qa.completed = true GROUP BY qa.score, qa.totalMarks")
+    List<Object[]> findScoreDistribution(@Param("quizId") Long quizId);
+
+    // (attempt id, username, score, total marks, end time) of completed attempts, for the leaderboard
+    @Query("SELECT qa.id, s.username, qa.score, qa.totalMarks, qa.endTime FROM QuizAttempt qa JOIN qa.student s " +
+            "WHERE qa.quiz.id = :quizId AND qa.completed = true")
+    List<Object[]> findLeaderboardRows(@Param("quizId") Long quizId);
+}
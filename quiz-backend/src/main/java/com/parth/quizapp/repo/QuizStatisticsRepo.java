@@ -0,0 +1,49 @@
+package com.parth.quizapp.repo;
+
+import com.parth.quizapp.Model.QuizStatistics;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuizStatisticsRepo extends JpaRepository<QuizStatistics, Long> {
+
+    // Row lock held until commit, for the rebuild and the batched sketch merge
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM QuizStatistics s WHERE s.quizId = :quizId")
+    Optional<QuizStatistics> findForUpdate(@Param("quizId") Long quizId);
+
+    // One graded attempt as an atomic delta, its histogram bucket (0-based) included; returns 0 if the
+    // quiz has no row yet. The array is rebuilt rather than assigned by subscript, which H2 cannot do.
+    @Modifying
+    @Query(value = "UPDATE quiz_statistics SET attempt_count = attempt_count + 1, score_sum = score_sum + :score, " +
+            "score_sum_of_squares = score_sum_of_squares + :scoreSquared, " +
+            "min_score = CASE WHEN min_score IS NULL OR :score < min_score THEN :score ELSE min_score END, " +
+            "max_score = CASE WHEN max_score IS NULL OR :score > max_score THEN :score ELSE max_score END, " +
+            "histogram = ARRAY[" +
+            "COALESCE(histogram[1], 0) + CASE WHEN :bucket = 0 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[2], 0) + CASE WHEN :bucket = 1 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[3], 0) + CASE WHEN :bucket = 2 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[4], 0) + CASE WHEN :bucket = 3 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[5], 0) + CASE WHEN :bucket = 4 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[6], 0) + CASE WHEN :bucket = 5 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[7], 0) + CASE WHEN :bucket = 6 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[8], 0) + CASE WHEN :bucket = 7 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[9], 0) + CASE WHEN :bucket = 8 THEN 1 ELSE 0 END, " +
+            "COALESCE(histogram[10], 0) + CASE WHEN :bucket = 9 THEN 1 ELSE 0 END] " +
+            "WHERE quiz_id = :quizId", nativeQuery = true)
+    int addAttempt(@Param("quizId") Long quizId, @Param("score") int score, @Param("scoreSquared") long scoreSquared,
+                   @Param("bucket") int bucket);
+
+    // Creates the empty row if missing without failing the transaction when another submission races us
+    @Modifying
+    @Query(value = "INSERT INTO quiz_statistics (quiz_id, attempt_count, score_sum, score_sum_of_squares) " +
+            "VALUES (:quizId, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("quizId") Long quizId);
+}
@@ -2,12 +2,22 @@ package com.parth.quizapp.repo;
 
 import com.parth.quizapp.Model.QuizAttempt;
 import com.parth.quizapp.Model.StudentAnswer;
+import com.parth.quizapp.dto.QuestionResultDTO;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface StudentAnswerRepo extends JpaRepository<StudentAnswer, Long> {
+    @EntityGraph("StudentAnswer.question")
     List<StudentAnswer> findByQuizAttempt(QuizAttempt quizAttempt);
+
+    @Query("SELECT new com.parth.quizapp.dto.QuestionResultDTO(q.id, q.content, q.answer, sa.selectedAnswer, " +
+            "sa.isCorrect, q.option1, q.option2, q.option3, q.option4) " +
+            "FROM StudentAnswer sa JOIN sa.question q WHERE sa.quizAttempt.id = :attemptId ORDER BY q.id")
+    List<QuestionResultDTO> findQuestionResults(@Param("attemptId") Long attemptId);
 }
\ No newline at end of file
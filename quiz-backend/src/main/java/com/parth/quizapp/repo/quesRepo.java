@@ -2,13 +2,24 @@ package com.parth.quizapp.repo;
 
 import com.parth.quizapp.Model.Ques;
 import com.parth.quizapp.Model.Quiz;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface quesRepo extends JpaRepository<Ques, Long> {
     List<Ques> findByQuiz(Quiz quiz);
     long countByQuiz(Quiz quiz);
+
+    // The question with its quiz, for checks against the quiz's creator
+    @EntityGraph("Ques.quiz")
+    Optional<Ques> findWithQuizById(Long id);
+
+    @Query("SELECT q.id, q.answer, q.tag FROM Ques q WHERE q.quiz.id = :quizId ORDER BY q.id")
+    List<Object[]> findAnswerKeyByQuizId(@Param("quizId") Long quizId);
 }
\ No newline at end of file
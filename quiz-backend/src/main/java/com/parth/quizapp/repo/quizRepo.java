@@ -2,13 +2,71 @@ package com.parth.quizapp.repo;
 
 import com.parth.quizapp.Model.Quiz;
 import com.parth.quizapp.Model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface quizRepo extends JpaRepository<Quiz, Long> {
     List<Quiz> findByCreator(User creator);
     List<Quiz> findByActive(boolean active);
-}
\ No newline at end of file
+
+    // Listing columns only, so pages do not pull in the creator/teacher users
+    interface QuizSummary {
+        Long getId();
+        String getCode();
+        String getTitle();
+        String getDescription();
+        int getMaxMarks();
+        int getNumberOfQuestions();
+        boolean isActive();
+        boolean isShuffleQuestions();
+        boolean isQuestionPool();
+        LocalDateTime getCreatedAt();
+    }
+
+    String SUMMARY_SELECT = "SELECT q.id AS id, q.code AS code, q.title AS title, q.description AS description, " +
+            "q.maxMarks AS maxMarks, q.numberOfQuestions AS numberOfQuestions, q.active AS active, " +
+            "q.shuffleQuestions AS shuffleQuestions, " +
+            "q.questionPool AS questionPool, q.createdAt AS createdAt FROM Quiz q ";
+
+    // Keyset pages ordered by (createdAt, id); a null cursor starts from the first row
+    String PAGE_FILTER = "WHERE (:active IS NULL OR q.active = :active) " +
+            "AND (CAST(:from AS LocalDateTime) IS NULL OR q.createdAt >= :from) " +
+            "AND (CAST(:to AS LocalDateTime) IS NULL OR q.createdAt < :to) ";
+
+    @Query(SUMMARY_SELECT + PAGE_FILTER +
+            "AND (CAST(:cursorTime AS LocalDateTime) IS NULL OR q.createdAt < :cursorTime " +
+            "OR (q.createdAt = :cursorTime AND q.id < :cursorId)) ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuizSummary> findPageDesc(@Param("active") Boolean active,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to,
+                            @Param("cursorTime") LocalDateTime cursorTime,
+                            @Param("cursorId") Long cursorId,
+                            Limit limit);
+
+    @Query(SUMMARY_SELECT + PAGE_FILTER +
+            "AND (CAST(:cursorTime AS LocalDateTime) IS NULL OR q.createdAt > :cursorTime " +
+            "OR (q.createdAt = :cursorTime AND q.id > :cursorId)) ORDER BY q.createdAt ASC, q.id ASC")
+    List<QuizSummary> findPageAsc(@Param("active") Boolean active,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("cursorTime") LocalDateTime cursorTime,
+                           @Param("cursorId") Long cursorId,
+                           Limit limit);
+
+    @Query("SELECT q.id FROM Quiz q ORDER BY q.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT q.id FROM Quiz q WHERE q.active = true")
+    List<Long> findActiveIds();
+
+    @Query("SELECT q.active FROM Quiz q WHERE q.id = :quizId")
+    Optional<Boolean> findActiveById(@Param("quizId") Long quizId);
+}
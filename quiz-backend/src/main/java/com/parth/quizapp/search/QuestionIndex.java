@@ -0,0 +1,334 @@
+package com.parth.quizapp.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over question text, ranked with BM25. Postings are delta-encoded
+ * int arrays per term: each entry packs the doc-id gap with a small term frequency, so a
+ * posting usually costs 4 bytes. Documents get increasing slot numbers; updating a question
+ * retires its old slot and appends a new one. Once enough slots are retired, compaction drops
+ * them and renumbers the live ones densely, so the per-slot arrays track the live document
+ * count rather than the number of edits. The last query word also matches as a prefix.
+ * Thread-safe: searches share a read lock, changes take the write lock.
+ */
+public class QuestionIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TF_BITS = 3;
+    private static final int TF_MASK = (1 << TF_BITS) - 1;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_CAPACITY = 1024;
+
+    public record Hit(long questionId, long quizId, float score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final LongIntHashMap slotsByQuestion = new LongIntHashMap();
+    private final BitSet retired = new BitSet();
+
+    private long[] questionIds = new long[MIN_CAPACITY];
+    private long[] quizIds = new long[MIN_CAPACITY];
+    private int[] lengths = new int[MIN_CAPACITY];
+    private int slots;
+    private int liveDocs;
+    private long liveLength;
+    private int retiredSinceCompaction;
+
+    private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[0]);
+
+    private static final class Postings {
+        private int[] data = new int[2];
+        private int size;
+        private int lastSlot = -1;
+        // Includes retired slots until the next compaction, which slightly dampens idf meanwhile
+        private int docFreq;
+
+        private void add(int slot, int tf) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 2));
+            }
+            int capped = Math.min(tf, TF_MASK);
+            data[size++] = (slot - lastSlot) << TF_BITS | capped;
+            if (capped == TF_MASK) {
+                data[size++] = tf;
+            }
+            lastSlot = slot;
+            docFreq++;
+        }
+    }
+
+    // Adds the question, replacing any earlier version of it
+    public void put(long questionId, long quizId, String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(text)) {
+            counts.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(questionId);
+            int slot = slots++;
+            if (slot == questionIds.length) {
+                int capacity = questionIds.length * 2;
+                questionIds = Arrays.copyOf(questionIds, capacity);
+                quizIds = Arrays.copyOf(quizIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            questionIds[slot] = questionId;
+            quizIds[slot] = quizId;
+            lengths[slot] = length;
+            for (Map.Entry<String, Integer> term : counts.entrySet()) {
+                terms.computeIfAbsent(term.getKey(), t -> new Postings()).add(slot, term.getValue());
+            }
+            slotsByQuestion.put(questionId, slot);
+            liveDocs++;
+            liveLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long questionId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(questionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Scans the slots (kept close to the live count by compaction); deleting a quiz is rare
+    public void removeQuiz(long quizId) {
+        lock.writeLock().lock();
+        try {
+            // Collected first: a removal may compact, which renumbers the slots
+            List<Long> removed = new ArrayList<>();
+            for (int slot = 0; slot < slots; slot++) {
+                if (quizIds[slot] == quizId && !retired.get(slot)) {
+                    removed.add(questionIds[slot]);
+                }
+            }
+            removed.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Slots in use, retired ones included
+    int slotCount() {
+        lock.readLock().lock();
+        try {
+            return slots;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Prefix-match the last word unless the user has finished typing it
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1))
+                && words.get(words.size() - 1).length() >= MIN_PREFIX_LENGTH;
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float[] scores = SCORES.get();
+            if (scores.length < slots || scores.length > 4 * Math.max(slots, MIN_CAPACITY)) {
+                // Grown for a larger index (or before a compaction); resized either way
+                scores = new float[Math.max(slots, Math.min(scores.length * 2, 2 * Math.max(slots, MIN_CAPACITY)))];
+                SCORES.set(scores);
+            }
+
+            float avgLength = (float) liveLength / liveDocs;
+            int[] touched = new int[64];
+            int touchedCount = 0;
+            Set<String> scoredTerms = new HashSet<>();
+
+            for (int w = 0; w < words.size(); w++) {
+                String word = words.get(w);
+                Collection<String> matches = w == words.size() - 1 && prefixLast ? expand(word) : List.of(word);
+                for (String term : matches) {
+                    Postings postings = terms.get(term);
+                    if (postings == null || !scoredTerms.add(term)) {
+                        continue;
+                    }
+                    float idf = (float) Math.log(1 + (liveDocs - postings.docFreq + 0.5) / (postings.docFreq + 0.5));
+                    int[] data = postings.data;
+                    int slot = -1;
+                    for (int i = 0; i < postings.size; ) {
+                        int value = data[i++];
+                        slot += value >>> TF_BITS;
+                        int tf = value & TF_MASK;
+                        if (tf == TF_MASK) {
+                            tf = data[i++];
+                        }
+                        if (retired.get(slot)) {
+                            continue;
+                        }
+                        float norm = tf + K1 * (1 - B + B * lengths[slot] / avgLength);
+                        if (scores[slot] == 0) {
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touched.length * 2);
+                            }
+                            touched[touchedCount++] = slot;
+                        }
+                        scores[slot] += idf * tf * (K1 + 1) / norm;
+                    }
+                }
+            }
+
+            // Min-heap of the best `limit` slots, then clear the accumulator for the next query
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                float score = scores[slot];
+                scores[slot] = 0;
+                if (best.size() < limit) {
+                    best.add(new Hit(questionIds[slot], quizIds[slot], score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Hit(questionIds[slot], quizIds[slot], score));
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::questionId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower-cased runs of letters and digits; single letters carry no signal and are skipped
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start > 1 || Character.isDigit(text.charAt(start))) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // The most common terms starting with the prefix (the prefix itself included)
+    private Collection<String> expand(String prefix) {
+        SortedMap<String, Postings> range = terms.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (range.size() <= MAX_PREFIX_EXPANSIONS) {
+            return range.keySet();
+        }
+        PriorityQueue<Map.Entry<String, Postings>> common =
+                new PriorityQueue<>(Comparator.comparingInt(e -> e.getValue().docFreq));
+        for (Map.Entry<String, Postings> entry : range.entrySet()) {
+            common.add(entry);
+            if (common.size() > MAX_PREFIX_EXPANSIONS) {
+                common.poll();
+            }
+        }
+        List<String> expanded = new ArrayList<>(common.size());
+        for (Map.Entry<String, Postings> entry : common) {
+            expanded.add(entry.getKey());
+        }
+        return expanded;
+    }
+
+    private void removeLocked(long questionId) {
+        int slot = slotsByQuestion.remove(questionId);
+        if (slot < 0) {
+            return;
+        }
+        retired.set(slot);
+        liveDocs--;
+        liveLength -= lengths[slot];
+        if (++retiredSinceCompaction > Math.max(1000, liveDocs / 4)) {
+            compact();
+        }
+    }
+
+    // Renumbers live slots densely (in order, so postings stay sorted), rewrites every posting
+    // list without retired slots, recomputes document frequencies and shrinks the slot arrays
+    private void compact() {
+        int[] renumbered = new int[slots];
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (retired.get(slot)) {
+                renumbered[slot] = -1;
+                continue;
+            }
+            renumbered[slot] = live;
+            questionIds[live] = questionIds[slot];
+            quizIds[live] = quizIds[slot];
+            lengths[live] = lengths[slot];
+            slotsByQuestion.put(questionIds[live], live);
+            live++;
+        }
+
+        Iterator<Map.Entry<String, Postings>> it = terms.entrySet().iterator();
+        while (it.hasNext()) {
+            Postings old = it.next().getValue();
+            Postings kept = new Postings();
+            int slot = -1;
+            for (int i = 0; i < old.size; ) {
+                int value = old.data[i++];
+                slot += value >>> TF_BITS;
+                int tf = value & TF_MASK;
+                if (tf == TF_MASK) {
+                    tf = old.data[i++];
+                }
+                if (renumbered[slot] >= 0) {
+                    kept.add(renumbered[slot], tf);
+                }
+            }
+            if (kept.size == 0) {
+                it.remove();
+            } else {
+                old.data = kept.size < kept.data.length ? Arrays.copyOf(kept.data, kept.size) : kept.data;
+                old.size = kept.size;
+                old.lastSlot = kept.lastSlot;
+                old.docFreq = kept.docFreq;
+            }
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < live * 2) {
+            capacity *= 2;
+        }
+        if (capacity < questionIds.length) {
+            questionIds = Arrays.copyOf(questionIds, capacity);
+            quizIds = Arrays.copyOf(quizIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        slots = live;
+        retired.clear();
+        retiredSinceCompaction = 0;
+    }
+}
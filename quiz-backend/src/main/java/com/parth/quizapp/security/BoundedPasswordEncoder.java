@@ -0,0 +1,120 @@
+package com.parth.quizapp.security;
+
+import com.parth.quizapp.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on a small CPU-sized pool with a bounded queue, so a login storm cannot
+ * occupy every Tomcat thread with hashing. When the queue is full callers fail fast with
+ * {@link TooManyRequestsException} carrying a Retry-After estimate.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor pool;
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueSize,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.strength = strength;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        verifyTimer = Timer.builder("quiz.auth.bcrypt").tag("operation", "verify").register(meterRegistry);
+        encodeTimer = Timer.builder("quiz.auth.bcrypt").tag("operation", "encode").register(meterRegistry);
+        queueWaitTimer = Timer.builder("quiz.auth.bcrypt.queue_wait").register(meterRegistry);
+        rejected = Counter.builder("quiz.auth.bcrypt.rejected").register(meterRegistry);
+        Gauge.builder("quiz.auth.bcrypt.queue_depth", pool, p -> p.getQueue().size()).register(meterRegistry);
+        Gauge.builder("quiz.auth.bcrypt.active", pool, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Any cost other than the configured one, so lowering the cost also rewrites hashes
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (matcher.find()) {
+            return Integer.parseInt(matcher.group(1)) != strength;
+        }
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> hashing) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = pool.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many concurrent sign-ins, please retry shortly",
+                    retryAfterSeconds());
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Time for the current backlog to drain at the observed hashing speed
+    int retryAfterSeconds() {
+        double hashMs = Math.max(verifyTimer.mean(TimeUnit.MILLISECONDS), encodeTimer.mean(TimeUnit.MILLISECONDS));
+        double backlog = (double) (pool.getQueue().size() + pool.getActiveCount()) / pool.getMaximumPoolSize();
+        return (int) Math.max(1, Math.ceil(backlog * hashMs / 1000));
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,149 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.dto.QuestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What one attempt sees of a shuffled or pooled quiz, derived from the attempt id alone so
+ * nothing is stored per student. Questions are ordered by a keyed hash of their id, which
+ * keeps an attempt's order stable when other questions are added or removed. Each question's
+ * options get their own permutation keyed by (attempt, question), which is all grading needs
+ * to map a displayed "optionN" back to the stored one. Pooled quizzes draw their questions
+ * from the answer key, which doubles as the pool index.
+ */
+final class AttemptShuffle {
+
+    private static final String[] OPTIONS = {"option1", "option2", "option3", "option4"};
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private AttemptShuffle() {
+    }
+
+    // The questions as the attempt sees them; the input list and its DTOs are left untouched
+    static List<QuestionDTO> apply(long attemptId, List<QuestionDTO> questions) {
+        List<QuestionDTO> shuffled = new ArrayList<>(questions.size());
+        for (QuestionDTO question : questions) {
+            String[] stored = {question.getOption1(), question.getOption2(), question.getOption3(), question.getOption4()};
+            int[] order = optionOrder(attemptId, question.getId());
+            shuffled.add(new QuestionDTO(question.getId(), question.getContent(), question.getImage(),
+                    stored[order[0]], stored[order[1]], stored[order[2]], stored[order[3]],
+                    null, question.getQuizId(), question.getTag()));
+        }
+        shuffled.sort(Comparator.comparingLong(q -> questionKey(attemptId, q.getId())));
+        return shuffled;
+    }
+
+    // Maps an answer given against the displayed options back to the stored option name
+    static String toStored(long attemptId, long questionId, String displayed) {
+        int index = AnswerKey.optionIndex(displayed);
+        if (index == 0) {
+            return displayed;
+        }
+        return OPTIONS[optionOrder(attemptId, questionId)[index - 1]];
+    }
+
+    static long questionKey(long attemptId, long questionId) {
+        return mix(mix(attemptId) ^ questionId);
+    }
+
+    // order[k] is the (0-based) stored option shown in displayed slot k
+    static int[] optionOrder(long attemptId, long questionId) {
+        int[] order = {0, 1, 2, 3};
+        long bits = mix(questionKey(attemptId, questionId) + GOLDEN_GAMMA);
+        // Fisher-Yates, drawing each swap position as the next mixed-radix digit of one hash
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = (int) Long.remainderUnsigned(bits, i + 1);
+            bits = Long.divideUnsigned(bits, i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Sorted answer-key positions of the {@code count} questions the attempt draws from the
+     * pool. Each tag stratum gets a share proportional to its size (largest remainder for the
+     * leftovers) and is sampled with Floyd's algorithm, so the cost is O(count) whatever the
+     * pool size. {@code count} is the attempt's own question count, fixed at start, and the pool
+     * cannot be edited while attempts are in progress, so the draw is reproducible from the id.
+     */
+    static int[] draw(long attemptId, AnswerKey pool, int count) {
+        int size = pool.size();
+        if (count >= size) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int strata = pool.strataCount();
+        int[] quotas = new int[strata];
+        long[] remainders = new long[strata];
+        int assigned = 0;
+        for (int s = 0; s < strata; s++) {
+            long share = (long) count * pool.stratumSize(s);
+            quotas[s] = (int) (share / size);
+            remainders[s] = share % size;
+            assigned += quotas[s];
+        }
+        for (; assigned < count; assigned++) {
+            int largest = 0;
+            for (int s = 1; s < strata; s++) {
+                if (remainders[s] > remainders[largest]) {
+                    largest = s;
+                }
+            }
+            quotas[largest]++;
+            remainders[largest] = -1;
+        }
+
+        int[] drawn = new int[count];
+        int drawnCount = 0;
+        long state = mix(attemptId + GOLDEN_GAMMA);
+        for (int s = 0; s < strata; s++) {
+            int stratumSize = pool.stratumSize(s);
+            int quota = quotas[s];
+            // Open-addressing set of the indexes chosen within this stratum
+            int[] chosen = new int[Integer.highestOneBit(Math.max(1, quota) * 2) * 2];
+            Arrays.fill(chosen, -1);
+            for (int j = stratumSize - quota; j < stratumSize; j++) {
+                state += GOLDEN_GAMMA;
+                int pick = (int) Long.remainderUnsigned(mix(state), j + 1);
+                if (!addIfAbsent(chosen, pick)) {
+                    pick = j;
+                    addIfAbsent(chosen, pick);
+                }
+                drawn[drawnCount++] = pool.stratumPosition(s, pick);
+            }
+        }
+        Arrays.sort(drawn);
+        return drawn;
+    }
+
+    private static boolean addIfAbsent(int[] set, int value) {
+        int mask = set.length - 1;
+        for (int slot = value & mask; ; slot = (slot + 1) & mask) {
+            if (set[slot] == value) {
+                return false;
+            }
+            if (set[slot] == -1) {
+                set[slot] = value;
+                return true;
+            }
+        }
+    }
+
+    // SplitMix64 finalizer: a fixed, well-distributed 64-bit mix that never changes between releases
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,86 @@
+package com.parth.quizapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader for uploaded rosters and question banks: a header row
+ * naming the columns, quoted fields with doubled quotes, and quoted line breaks.
+ */
+final class CsvRecordReader {
+
+    private final BufferedReader reader;
+    private final List<String> columns;
+
+    CsvRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = next();
+        // Byte order mark left by spreadsheet exports
+        columns = header == null ? List.of() : header.stream()
+                .map(c -> c.replace("\uFEFF", "").trim().toLowerCase())
+                .toList();
+    }
+
+    // Index of the named header column, or -1
+    int column(String name) {
+        return columns.indexOf(name);
+    }
+
+    boolean isEmpty() {
+        return columns.isEmpty();
+    }
+
+    // Fields of the next non-blank record, or null at end of input
+    List<String> next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // Line break inside a quoted field
+            line = reader.readLine();
+            if (line == null) {
+                throw new RuntimeException("CSV ends inside a quoted field");
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+}
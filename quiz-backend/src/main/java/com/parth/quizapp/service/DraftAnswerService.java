@@ -0,0 +1,288 @@
+package com.parth.quizapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.QuizAttempt;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.repo.QuizAttemptRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind buffer for answers autosaved while a quiz attempt is in progress.
+ * Each PATCH is merged into an in-memory draft per attempt; dirty drafts are written
+ * to quiz_attempt.draft_answers in one JDBC batch on a timer or once enough pile up.
+ */
+@Service
+public class DraftAnswerService {
+
+    private static final Logger log = LoggerFactory.getLogger(DraftAnswerService.class);
+    private static final TypeReference<Map<Long, String>> ANSWERS_TYPE = new TypeReference<>() {
+    };
+    // Length of quiz_attempt.draft_answers
+    private static final int MAX_DRAFT_LENGTH = 65535;
+    private static final String UPDATE_DRAFT = "UPDATE quiz_attempt SET draft_answers = ? WHERE id = ? AND completed = false";
+
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.autosave.max-dirty-attempts:200}")
+    private int maxDirtyAttempts;
+
+    @Value("${quiz.autosave.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    @Value("${quiz.autosave.max-answers:1000}")
+    private int maxAnswers;
+
+    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+    private final AtomicInteger dirtyAttempts = new AtomicInteger();
+    private ExecutorService flushExecutor;
+    private Timer flushTimer;
+
+    private static final class Draft {
+        private final long studentId;
+        private final long quizId;
+        private final Map<Long, String> answers;
+        private boolean dirty;
+        private long touchedAt = System.currentTimeMillis();
+
+        private Draft(long studentId, long quizId, Map<Long, String> answers) {
+            this.studentId = studentId;
+            this.quizId = quizId;
+            this.answers = answers;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "draft-answer-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushTimer = Timer.builder("quiz.autosave.flush").register(meterRegistry);
+        Gauge.builder("quiz.autosave.dirty_attempts", dirtyAttempts, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("quiz.autosave.buffered_attempts", drafts, Map::size).register(meterRegistry);
+    }
+
+    // Merge autosaved answers into the attempt's draft; nothing is written until the next flush
+    public void saveDrafts(Long attemptId, Map<Long, String> answers) {
+        User currentUser = getCurrentUser();
+        if (answers.size() > maxAnswers) {
+            throw new RuntimeException("At most " + maxAnswers + " answers can be saved at once");
+        }
+
+        Draft draft = drafts.get(attemptId);
+        if (draft == null) {
+            draft = load(attemptId);
+        }
+        if (draft.studentId != currentUser.getId()) {
+            throw new RuntimeException("You are not authorized to save answers for this attempt");
+        }
+        validate(draft.quizId, answers);
+
+        boolean becameDirty;
+        synchronized (draft) {
+            int added = 0;
+            for (Long questionId : answers.keySet()) {
+                if (!draft.answers.containsKey(questionId)) {
+                    added++;
+                }
+            }
+            if (draft.answers.size() + added > maxAnswers) {
+                throw new RuntimeException("At most " + maxAnswers + " answers can be saved per attempt");
+            }
+            draft.answers.putAll(answers);
+            draft.touchedAt = System.currentTimeMillis();
+            becameDirty = !draft.dirty;
+            draft.dirty = true;
+        }
+
+        if (becameDirty && dirtyAttempts.incrementAndGet() >= maxDirtyAttempts) {
+            flushExecutor.execute(this::flush);
+        }
+    }
+
+    // Drafts of an attempt being graded, falling back to what was already persisted. The buffered
+    // draft is only dropped once grading commits, so a rolled back submission keeps its autosaves.
+    public Map<Long, String> takeDrafts(QuizAttempt attempt) {
+        Long attemptId = attempt.getId();
+        Draft draft = drafts.get(attemptId);
+        String persisted = attempt.getDraftAnswers();
+        attempt.setDraftAnswers(null);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(attemptId);
+                }
+            });
+        } else {
+            evict(attemptId);
+        }
+
+        if (draft == null) {
+            return parse(persisted);
+        }
+        synchronized (draft) {
+            return new HashMap<>(draft.answers);
+        }
+    }
+
+    public Map<Long, String> parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, ANSWERS_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable draft answers: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.autosave.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        long idleCutoff = System.currentTimeMillis() - idleEvictionMs;
+
+        for (Map.Entry<Long, Draft> entry : drafts.entrySet()) {
+            Draft draft = entry.getValue();
+            synchronized (draft) {
+                if (!draft.dirty) {
+                    if (draft.touchedAt < idleCutoff) {
+                        drafts.remove(entry.getKey(), draft);
+                    }
+                    continue;
+                }
+                draft.dirty = false;
+                dirtyAttempts.decrementAndGet();
+                String json;
+                try {
+                    json = objectMapper.writeValueAsString(draft.answers);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (json.length() > MAX_DRAFT_LENGTH) {
+                    log.warn("Not persisting drafts of attempt {}: {} characters exceed the column", entry.getKey(), json.length());
+                    continue;
+                }
+                batch.add(new Object[]{json, entry.getKey()});
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(UPDATE_DRAFT, batch));
+        } catch (RuntimeException e) {
+            // Find the rows the batch choked on and drop them; the rest are written one by one.
+            // Dropped drafts stay buffered and are still graded, they are just not persisted until the next save.
+            log.warn("Flushing {} draft answer sets failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                try {
+                    jdbcTemplate.update(UPDATE_DRAFT, row);
+                } catch (RuntimeException rowFailure) {
+                    log.warn("Dropping unwritable drafts of attempt {}: {}", row[1], rowFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    // Rejects answers to questions outside the attempt's quiz and anything but an option name
+    private void validate(long quizId, Map<Long, String> answers) {
+        AnswerKey answerKey = answerKeyCache.get(quizId);
+        for (Map.Entry<Long, String> answer : answers.entrySet()) {
+            if (answer.getKey() == null || answerKey.indexOf(answer.getKey()) < 0) {
+                throw new RuntimeException("Question " + answer.getKey() + " is not part of this quiz");
+            }
+            if (AnswerKey.optionIndex(answer.getValue()) == 0) {
+                throw new RuntimeException("Answers must be one of option1 to option4");
+            }
+        }
+    }
+
+    private void evict(Long attemptId) {
+        Draft draft = drafts.remove(attemptId);
+        if (draft != null) {
+            synchronized (draft) {
+                if (draft.dirty) {
+                    draft.dirty = false;
+                    dirtyAttempts.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    public int getDirtyAttempts() {
+        return dirtyAttempts.get();
+    }
+
+    // One lookup per attempt per node: ownership, completion and anything persisted before a restart
+    private Draft load(Long attemptId) {
+        List<Object[]> rows = quizAttemptRepository.findDraftState(attemptId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Quiz attempt not found");
+        }
+        Object[] row = rows.get(0);
+        if ((Boolean) row[1]) {
+            throw new RuntimeException("This quiz attempt has already been submitted");
+        }
+
+        Draft loaded = new Draft((Long) row[0], (Long) row[3], parse((String) row[2]));
+        Draft existing = drafts.putIfAbsent(attemptId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Get current authenticated user
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,175 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.QuizStatistics;
+import com.parth.quizapp.analysis.ItemAccumulator;
+import com.parth.quizapp.analysis.ResponseChunk;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.dto.ItemAnalysisDTO;
+import com.parth.quizapp.dto.QuestionAnalysisDTO;
+import com.parth.quizapp.repo.QuizStatisticsRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per-question difficulty, discrimination and distractor counts for a quiz. Graded answers
+ * are streamed in chunks and each chunk is aggregated on a fork/join pool. Results are
+ * cached until the quiz's attempt count or answer key changes.
+ */
+@Service
+public class ItemAnalysisService {
+
+    private static final String RESPONSES_SQL =
+            "SELECT sa.question_id, sa.selected_answer, sa.is_correct, qa.correct_answers" +
+                    " FROM student_answer sa JOIN quiz_attempt qa ON qa.id = sa.quiz_attempt_id" +
+                    " WHERE qa.quiz_id = ? AND qa.completed = true";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuizStatisticsRepo quizStatisticsRepository;
+
+    @Value("${quiz.item-analysis.chunk-size:16384}")
+    private int chunkSize;
+
+    @Value("${quiz.item-analysis.split-threshold:2048}")
+    private int splitThreshold;
+
+    @Value("${quiz.item-analysis.parallelism:0}")
+    private int parallelism;
+
+    @Value("${quiz.item-analysis.cache-max-quizzes:200}")
+    private int cacheMaxQuizzes;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private ForkJoinPool pool;
+    private Map<Long, CachedAnalysis> cache;
+
+    // Valid while the answer key instance and the committed attempt count are unchanged
+    private record CachedAnalysis(AnswerKey answerKey, long attemptCount, ItemAnalysisDTO analysis) {
+    }
+
+    // Aggregate plus the attempt count read in the same transaction (and on the same database)
+    private record AnalysisRun(long attemptCount, ItemAccumulator items) {
+    }
+
+    @PostConstruct
+    void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(chunkSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedAnalysis> eldest) {
+                return size() > cacheMaxQuizzes;
+            }
+        };
+    }
+
+    public ItemAnalysisDTO getItemAnalysis(Long quizId) {
+        quizAttemptService.checkCanViewQuizResults(quizId);
+
+        AnswerKey answerKey = answerKeyCache.get(quizId);
+        long attemptCount = quizStatisticsRepository.findById(quizId)
+                .map(QuizStatistics::getAttemptCount)
+                .orElse(0L);
+
+        synchronized (cache) {
+            CachedAnalysis cached = cache.get(quizId);
+            if (cached != null && cached.answerKey() == answerKey && cached.attemptCount() == attemptCount) {
+                return cached.analysis();
+            }
+        }
+
+        // The run may read a replica behind the count above; it is cached under the count it saw,
+        // so a lagging result is recomputed on the next request instead of being served as current
+        AnalysisRun run = analyze(quizId, answerKey);
+        ItemAnalysisDTO analysis = convertToDTO(quizId, answerKey, run.items());
+        synchronized (cache) {
+            cache.put(quizId, new CachedAnalysis(answerKey, run.attemptCount(), analysis));
+        }
+        return analysis;
+    }
+
+    private AnalysisRun analyze(Long quizId, AnswerKey answerKey) {
+        int questionCount = answerKey.size();
+        ItemAccumulator total = new ItemAccumulator(questionCount);
+        ResponseChunk chunk = new ResponseChunk(chunkSize);
+
+        // Postgres only honours the fetch size inside a transaction
+        long attemptCount = readOnlyTransaction.execute(status -> {
+            // Read before the responses, so the count never covers attempts the stream missed
+            long counted = quizStatisticsRepository.findById(quizId)
+                    .map(QuizStatistics::getAttemptCount)
+                    .orElse(0L);
+            cursorTemplate.query(RESPONSES_SQL, rs -> {
+                int questionIndex = answerKey.indexOf(rs.getLong(1));
+                if (questionIndex < 0) {
+                    return;
+                }
+                chunk.add(questionIndex, AnswerKey.optionIndex(rs.getString(2)), rs.getBoolean(3), rs.getInt(4));
+                if (chunk.isFull()) {
+                    total.merge(pool.invoke(new ItemAccumulator.Task(chunk, questionCount, splitThreshold)));
+                    chunk.clear();
+                }
+            }, quizId);
+            return counted;
+        });
+
+        if (chunk.size() > 0) {
+            total.merge(pool.invoke(new ItemAccumulator.Task(chunk, questionCount, splitThreshold)));
+        }
+        return new AnalysisRun(attemptCount, total);
+    }
+
+    private ItemAnalysisDTO convertToDTO(Long quizId, AnswerKey answerKey, ItemAccumulator accumulator) {
+        List<QuestionAnalysisDTO> questions = new ArrayList<>(answerKey.size());
+        long attempts = 0;
+
+        for (int i = 0; i < answerKey.size(); i++) {
+            long[] optionCounts = new long[4];
+            for (int option = 1; option <= 4; option++) {
+                optionCounts[option - 1] = accumulator.optionCount(i, option);
+            }
+            questions.add(new QuestionAnalysisDTO(
+                    answerKey.questionId(i),
+                    accumulator.responses(i),
+                    accumulator.difficulty(i),
+                    accumulator.discrimination(i),
+                    answerKey.answer(i),
+                    optionCounts,
+                    accumulator.optionCount(i, 0)
+            ));
+            attempts = Math.max(attempts, accumulator.responses(i));
+        }
+        return new ItemAnalysisDTO(quizId, attempts, questions);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.dto.CursorPageDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a (timestamp, id) ordered listing, handed to clients as an opaque token.
+ */
+public record KeysetCursor(LocalDateTime time, Long id) {
+
+    public static final KeysetCursor START = new KeysetCursor(null, null);
+
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    // Rows are fetched with limit + 1 so a further page can be detected without a count query
+    public static <R, T> CursorPageDTO<T> page(List<R> rows, int limit, Function<R, T> mapper,
+                                               Function<R, KeysetCursor> keyOf) {
+        boolean hasMore = rows.size() > limit;
+        List<R> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? keyOf.apply(pageRows.get(limit - 1)).encode() : null;
+        return new CursorPageDTO<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,167 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.leaderboard.Leaderboard;
+import com.parth.quizapp.repo.QuizAttemptRepo;
+import com.parth.quizapp.repo.quizRepo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory leaderboards for active quizzes, loaded from completed attempts on first use
+ * (eagerly at startup) and kept current as attempts are graded. At most
+ * quiz.leaderboard.max-quizzes boards are kept, least recently used first out; inactive
+ * quizzes are ranked from the database on each call. Each node keeps its own copy, so ranks
+ * only reflect submissions graded on this node since the board was loaded.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Autowired
+    private quizRepo quizRepository;
+
+    @Value("${quiz.leaderboard.max-quizzes:1000}")
+    private int maxQuizzes;
+
+    // Bumped on every eviction (and on commits that found no board) so a racing load is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private Map<Long, Leaderboard> boards;
+
+    @PostConstruct
+    void init() {
+        boards = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Leaderboard> eldest) {
+                return size() > maxQuizzes;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Long> activeQuizIds = quizRepository.findActiveIds().stream().limit(maxQuizzes).toList();
+        activeQuizIds.forEach(this::loadAndCache);
+        log.info("Loaded leaderboards for {} active quizzes", activeQuizIds.size());
+    }
+
+    // Add a graded attempt once its transaction commits; rankOf already reports its rank before that
+    public void recordAttempt(Long quizId, boolean active, Leaderboard.Entry entry) {
+        Leaderboard board = cached(quizId);
+        if (board == null) {
+            if (!active) {
+                // Nothing is kept for inactive quizzes; the next read sees the committed attempt
+                return;
+            }
+            board = loadAndCache(quizId);
+        }
+        // A board loaded inside the grading transaction already sees the uncommitted attempt
+        board.remove(entry);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addCommitted(quizId, entry);
+                }
+            });
+        } else {
+            addCommitted(quizId, entry);
+        }
+    }
+
+    public int rankOf(Long quizId, Leaderboard.Entry entry) {
+        return board(quizId).rankOf(entry);
+    }
+
+    public List<Leaderboard.Entry> top(Long quizId, int limit) {
+        return board(quizId).top(limit);
+    }
+
+    public int size(Long quizId) {
+        return board(quizId).size();
+    }
+
+    public void evict(Long quizId) {
+        synchronized (boards) {
+            generation.incrementAndGet();
+            boards.remove(quizId);
+        }
+    }
+
+    public int cachedBoards() {
+        synchronized (boards) {
+            return boards.size();
+        }
+    }
+
+    private Leaderboard board(Long quizId) {
+        Leaderboard board = cached(quizId);
+        if (board != null) {
+            return board;
+        }
+        return quizRepository.findActiveById(quizId).orElse(false) ? loadAndCache(quizId) : load(quizId);
+    }
+
+    private Leaderboard cached(Long quizId) {
+        synchronized (boards) {
+            return boards.get(quizId);
+        }
+    }
+
+    // A board cached by a concurrent caller wins, so entries added to it after commit are never lost
+    private Leaderboard loadAndCache(Long quizId) {
+        long loadedAt = generation.get();
+        Leaderboard loaded = load(quizId);
+        synchronized (boards) {
+            Leaderboard existing = boards.get(quizId);
+            if (existing != null) {
+                return existing;
+            }
+            if (generation.get() == loadedAt) {
+                boards.put(quizId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private void addCommitted(Long quizId, Leaderboard.Entry entry) {
+        Leaderboard board;
+        synchronized (boards) {
+            board = boards.get(quizId);
+            if (board == null) {
+                // A load that started before this commit must not be cached without the entry
+                generation.incrementAndGet();
+                return;
+            }
+        }
+        board.add(entry);
+    }
+
+    private Leaderboard load(Long quizId) {
+        Leaderboard board = new Leaderboard();
+        for (Object[] row : quizAttemptRepository.findLeaderboardRows(quizId)) {
+            board.add(new Leaderboard.Entry((Long) row[0], (String) row[1], (Integer) row[2],
+                    (Integer) row[3], (LocalDateTime) row[4]));
+        }
+        return board;
+    }
+}
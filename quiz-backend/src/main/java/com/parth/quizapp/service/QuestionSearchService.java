@@ -0,0 +1,172 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.Ques;
+import com.parth.quizapp.dto.QuestionSearchHitDTO;
+import com.parth.quizapp.repo.quesRepo;
+import com.parth.quizapp.search.QuestionIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search over the whole question bank for teachers reusing questions. Backed by
+ * an in-memory {@link QuestionIndex} built from the ques table at startup and kept current
+ * by QuestionService; hits are re-read from the database so results are never stale.
+ */
+@Service
+public class QuestionSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchService.class);
+
+    private static final String ALL_QUESTIONS_SQL =
+            "SELECT id, quiz_id, content, option1, option2, option3, option4 FROM ques ORDER BY id";
+
+    @Autowired
+    private quesRepo questionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.search.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${quiz.search.max-results:100}")
+    private int maxResults;
+
+    private volatile QuestionIndex index = new QuestionIndex();
+    // Changes made while a rebuild is reading the table, replayed onto the new index; guarded by this
+    private List<Consumer<QuestionIndex>> changesDuringRebuild;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private Timer searchTimer;
+
+    @PostConstruct
+    void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        searchTimer = Timer.builder("quiz.search.query").register(meterRegistry);
+        Gauge.builder("quiz.search.indexed_questions", this, s -> s.index.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        long started = System.currentTimeMillis();
+        QuestionIndex fresh = new QuestionIndex();
+        try {
+            // Postgres only honours the fetch size inside a transaction
+            readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(ALL_QUESTIONS_SQL, rs -> {
+                fresh.put(rs.getLong(1), rs.getLong(2), text(rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7)));
+            }));
+        } finally {
+            synchronized (this) {
+                // put/remove are idempotent, so replaying a change the scan already saw is harmless
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                changesDuringRebuild = null;
+                index = fresh;
+            }
+        }
+        log.info("Indexed {} questions for search in {} ms", fresh.size(), System.currentTimeMillis() - started);
+    }
+
+    public void index(Ques question) {
+        long quizId = question.getQuiz().getId();
+        String text = text(question.getContent(), question.getOption1(), question.getOption2(),
+                question.getOption3(), question.getOption4());
+        apply(index -> index.put(question.getId(), quizId, text));
+    }
+
+    // Re-reads freshly imported questions in chunks and indexes them
+    public void indexAll(long[] questionIds) {
+        for (int from = 0; from < questionIds.length; from += fetchSize) {
+            List<Long> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(questionIds.length, from + fetchSize); i++) {
+                chunk.add(questionIds[i]);
+            }
+            questionRepository.findAllById(chunk).forEach(this::index);
+        }
+    }
+
+    public void remove(long questionId) {
+        apply(index -> index.remove(questionId));
+    }
+
+    public void removeQuiz(long quizId) {
+        apply(index -> index.removeQuiz(quizId));
+    }
+
+    // Ranked hits for teachers looking for questions to reuse; answers are not included
+    public List<QuestionSearchHitDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        List<QuestionIndex.Hit> hits = searchTimer.record(
+                () -> index.search(query, Math.max(1, Math.min(limit, maxResults))));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Ques> questions = new HashMap<>();
+        questionRepository.findAllById(hits.stream().map(QuestionIndex.Hit::questionId).toList())
+                .forEach(question -> questions.put(question.getId(), question));
+
+        List<QuestionSearchHitDTO> results = new ArrayList<>(hits.size());
+        for (QuestionIndex.Hit hit : hits) {
+            Ques question = questions.get(hit.questionId());
+            // Deleted since it was found
+            if (question == null) {
+                continue;
+            }
+            results.add(new QuestionSearchHitDTO(question.getId(), question.getQuiz().getId(), hit.score(),
+                    question.getContent(), question.getImage(), question.getOption1(), question.getOption2(),
+                    question.getOption3(), question.getOption4()));
+        }
+        return results;
+    }
+
+    private void apply(Consumer<QuestionIndex> change) {
+        synchronized (this) {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+        change.accept(index);
+    }
+
+    private static String text(String content, String option1, String option2, String option3, String option4) {
+        StringJoiner text = new StringJoiner(" ");
+        for (String part : new String[]{content, option1, option2, option3, option4}) {
+            if (part != null) {
+                text.add(part);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -1,18 +1,46 @@
 package com.parth.quizapp.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.parth.quizapp.Model.Ques;
 import com.parth.quizapp.Model.Quiz;
 import com.parth.quizapp.Model.User;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.cache.QuestionPayloadCache;
+import com.parth.quizapp.cache.QuestionPayloadCache.Payload;
+import com.parth.quizapp.cache.QuestionPayloadCache.Rendered;
 import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuestionImportResultDTO;
 import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.repo.QuizAttemptRepo;
+import com.parth.quizapp.repo.QuizAttemptRepo.AttemptSummary;
 import com.parth.quizapp.repo.quesRepo;
 import com.parth.quizapp.repo.quizRepo;
+import com.parth.quizapp.storage.ImageStore;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,12 +52,56 @@ public class QuestionService {
     @Autowired
     private quizRepo quizRepository;
 
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuestionPayloadCache questionPayloadCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QuestionSearchService questionSearchService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    private static final String[] CSV_COLUMNS =
+            {"content", "image", "option1", "option2", "option3", "option4", "answer", "tag"};
+
     // Get current authenticated user
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return (User) authentication.getPrincipal();
     }
 
+    // Runs once the question rows are visible, so a concurrent reload cannot cache the old question set
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // An attempt re-derives its draw from the pool, so a pooled quiz's questions are frozen while attempts are in progress
+    private void checkPoolNotInUse(Quiz quiz) {
+        if (quiz.isQuestionPool() && quizAttemptRepository.existsByQuizIdAndCompletedFalse(quiz.getId())) {
+            throw new RuntimeException("Questions of a pooled quiz cannot change while attempts are in progress");
+        }
+    }
+
     // DTO conversion methods
     private QuestionDTO convertToDTO(Ques question) {
         QuestionDTO dto = new QuestionDTO();
@@ -41,6 +113,7 @@ public class QuestionService {
         dto.setOption3(question.getOption3());
         dto.setOption4(question.getOption4());
         dto.setQuizId(question.getQuiz().getId());
+        dto.setTag(question.getTag());
         return dto;
     }
 
@@ -50,25 +123,95 @@ public class QuestionService {
         return dto;
     }
 
-    // Get questions by quiz ID (without answers - for students taking quiz)
-    public List<QuestionDTO> getQuestionsByQuizId(Long quizId) {
-        Quiz quiz = quizRepository.findById(quizId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+    // Get questions by quiz ID (without answers - for students taking quiz), pre-rendered once per quiz
+    // and served from QuestionPayloadCache
+    public Payload getQuestionsPayload(Long quizId) {
+        Payload payload = questionPayloadCache.get(quizId, () -> render(quizId));
+        checkCanViewQuestions(payload.active(), payload.shuffled() || payload.drawCount() > 0, payload.creatorId());
+        return payload;
+    }
 
-        // Check if quiz is active or user is admin/creator
+    // Questions as an attempt sees them: drawn from the pool and/or shuffled per attempt when the quiz
+    // asks for it, recomputed from the cached payload and answer key on every call, so nothing is stored
+    public List<QuestionDTO> getAttemptQuestions(Long attemptId) {
         User currentUser = getCurrentUser();
-        boolean isAdminOrCreator = currentUser.getAuthorities().stream().anyMatch(a ->
-                a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_TEACHER"))
-                && (quiz.getCreator().equals(currentUser) ||
-                currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        AttemptSummary attempt = quizAttemptRepository.findSummaryById(attemptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt not found"));
 
-        if (!quiz.isActive() && !isAdminOrCreator) {
-            throw new RuntimeException("This quiz is not active");
+        boolean isAdmin = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!attempt.getStudentId().equals(currentUser.getId()) && !isAdmin) {
+            throw new RuntimeException("You are not authorized to view this quiz attempt");
         }
 
-        return questionRepository.findByQuiz(quiz).stream()
+        Payload payload = questionPayloadCache.get(attempt.getQuizId(), () -> render(attempt.getQuizId()));
+        List<QuestionDTO> questions = payload.questions();
+        if (payload.drawCount() > 0) {
+            questions = drawnQuestions(attemptId, attempt.getQuizId(), attempt.getTotalQuestions(), payload);
+        }
+        return payload.shuffled() ? AttemptShuffle.apply(attemptId, questions) : questions;
+    }
+
+    // Looks up only the drawn ids in the id-sorted payload, never walking the whole pool
+    private List<QuestionDTO> drawnQuestions(Long attemptId, Long quizId, int drawCount, Payload payload) {
+        AnswerKey pool = answerKeyCache.get(quizId);
+        int[] drawn = AttemptShuffle.draw(attemptId, pool, drawCount);
+        List<QuestionDTO> all = payload.questions();
+        List<QuestionDTO> questions = new ArrayList<>(drawn.length);
+        for (int position : drawn) {
+            // Binary search by id; a question missing from a payload loaded just before an edit is skipped
+            long questionId = pool.questionId(position);
+            int low = 0;
+            int high = all.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = all.get(mid).getId();
+                if (midId == questionId) {
+                    questions.add(all.get(mid));
+                    break;
+                }
+                if (midId < questionId) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+        }
+        return questions;
+    }
+
+    private Rendered render(Long quizId) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+        List<QuestionDTO> questions = questionRepository.findByQuiz(quiz).stream()
                 .map(this::convertToDTO)
+                .sorted(Comparator.comparing(QuestionDTO::getId))
                 .collect(Collectors.toList());
+        try {
+            return new Rendered(objectMapper.writeValueAsBytes(questions), questions, quiz.isActive(),
+                    quiz.isShuffleQuestions(), quiz.isQuestionPool() ? quiz.getNumberOfQuestions() : 0,
+                    quiz.getCreator() == null ? null : quiz.getCreator().getId());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Inactive quizzes are visible to admins and to the teacher who created them. Students must load a
+    // shuffled or pooled quiz through their attempt, since that is what their answers are graded against.
+    private void checkCanViewQuestions(boolean active, boolean perAttempt, Long creatorId) {
+        if (active && !perAttempt) {
+            return;
+        }
+        User currentUser = getCurrentUser();
+        boolean isAdmin = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        boolean isTeacher = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_TEACHER"));
+        boolean isAdminOrCreator = isAdmin || (isTeacher && currentUser.getId().equals(creatorId));
+
+        if (!active && !isAdminOrCreator) {
+            throw new RuntimeException("This quiz is not active");
+        }
+        if (perAttempt && !isAdmin && !isTeacher) {
+            throw new RuntimeException("This quiz differs per attempt; load its questions from your quiz attempt");
+        }
     }
 
     // Get questions with answers (for admin/teacher)
@@ -79,7 +222,7 @@ public class QuestionService {
 
         // Check if user is admin or the creator of the quiz
         if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
-                && !quiz.getCreator().equals(currentUser)) {
+                && !quiz.getCreator().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You are not authorized to view answers for this quiz");
         }
 
@@ -98,12 +241,12 @@ public class QuestionService {
     // Get a single question with answer (for admin/teacher)
     public QuestionDTO getQuestionWithAnswerById(Long questionId) {
         User currentUser = getCurrentUser();
-        Ques question = questionRepository.findById(questionId)
+        Ques question = questionRepository.findWithQuizById(questionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
 
         // Check if user is admin or the creator of the quiz
         if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
-                && !question.getQuiz().getCreator().equals(currentUser)) {
+                && !question.getQuiz().getCreator().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You are not authorized to view the answer for this question");
         }
 
@@ -111,6 +254,7 @@ public class QuestionService {
     }
 
     // Add question to quiz
+    @Transactional
     public QuestionDTO addQuestion(Long quizId, QuestionDTO questionDTO) {
         User currentUser = getCurrentUser();
         Quiz quiz = quizRepository.findById(quizId)
@@ -118,21 +262,28 @@ public class QuestionService {
 
         // Check if user is admin or the creator of the quiz
         if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
-                && !quiz.getCreator().equals(currentUser)) {
+                && !quiz.getCreator().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You are not authorized to add questions to this quiz");
         }
+        checkPoolNotInUse(quiz);
 
         Ques question = new Ques();
         question.setContent(questionDTO.getContent());
-        question.setImage(questionDTO.getImage());
+        question.setImage(imageStore.internalize(questionDTO.getImage()));
         question.setOption1(questionDTO.getOption1());
         question.setOption2(questionDTO.getOption2());
         question.setOption3(questionDTO.getOption3());
         question.setOption4(questionDTO.getOption4());
         question.setAnswer(questionDTO.getAnswer());
+        question.setTag(questionDTO.getTag());
         question.setQuiz(quiz);
 
         Ques savedQuestion = questionRepository.save(question);
+        afterCommit(() -> {
+            answerKeyCache.invalidate(quizId);
+            questionPayloadCache.invalidate(quizId);
+            questionSearchService.index(savedQuestion);
+        });
 
         // Update number of questions in quiz
 //        quiz.setNumberOfQuestions(quiz.getNumberOfQuestions() + 1);
@@ -142,46 +293,180 @@ public class QuestionService {
     }
 
     // Update question
+    @Transactional
     public QuestionDTO updateQuestion(Long questionId, QuestionDTO questionDTO) {
         User currentUser = getCurrentUser();
-        Ques question = questionRepository.findById(questionId)
+        Ques question = questionRepository.findWithQuizById(questionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
 
         // Check if user is admin or the creator of the quiz
         if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
-                && !question.getQuiz().getCreator().equals(currentUser)) {
+                && !question.getQuiz().getCreator().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You are not authorized to update this question");
         }
+        checkPoolNotInUse(question.getQuiz());
 
         question.setContent(questionDTO.getContent());
-        question.setImage(questionDTO.getImage());
+        question.setImage(imageStore.internalize(questionDTO.getImage()));
         question.setOption1(questionDTO.getOption1());
         question.setOption2(questionDTO.getOption2());
         question.setOption3(questionDTO.getOption3());
         question.setOption4(questionDTO.getOption4());
         question.setAnswer(questionDTO.getAnswer());
+        question.setTag(questionDTO.getTag());
 
         Ques updatedQuestion = questionRepository.save(question);
+        Long quizId = question.getQuiz().getId();
+        afterCommit(() -> {
+            answerKeyCache.invalidate(quizId);
+            questionPayloadCache.invalidate(quizId);
+            questionSearchService.index(updatedQuestion);
+        });
         return convertToDTOWithAnswer(updatedQuestion);
     }
 
     // Delete question
     public void deleteQuestion(Long questionId) {
         User currentUser = getCurrentUser();
-        Ques question = questionRepository.findById(questionId)
+        Ques question = questionRepository.findWithQuizById(questionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
 
         // Check if user is admin or the creator of the quiz
         if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
-                && !question.getQuiz().getCreator().equals(currentUser)) {
+                && !question.getQuiz().getCreator().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You are not authorized to delete this question");
         }
+        checkPoolNotInUse(question.getQuiz());
 
         Quiz quiz = question.getQuiz();
         questionRepository.delete(question);
+        answerKeyCache.invalidate(quiz.getId());
+        questionPayloadCache.invalidate(quiz.getId());
+        questionSearchService.remove(questionId);
 
         // Update number of questions in quiz
 //        quiz.setNumberOfQuestions(quiz.getNumberOfQuestions() - 1);
-        quizRepository.save(quiz);
+//        quizRepository.save(quiz);
+    }
+
+    // Add a list of questions in one transaction: all saved or none
+    @Transactional(rollbackFor = Exception.class)
+    public List<QuestionDTO> addQuestionsBulk(Long quizId, List<QuestionDTO> questionDTOs) throws IOException {
+        Iterator<QuestionDTO> questions = questionDTOs.iterator();
+        List<QuestionDTO> saved = new ArrayList<>(questionDTOs.size());
+        importQuestions(quizId, () -> questions.hasNext() ? questions.next() : null,
+                question -> saved.add(convertToDTOWithAnswer(question)));
+        return saved;
+    }
+
+    // Stream a CSV question bank (header: content,image,option1,option2,option3,option4,answer,tag) into the quiz
+    @Transactional(rollbackFor = Exception.class)
+    public QuestionImportResultDTO importQuestionsCsv(Long quizId, InputStream body) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            columns[i] = csv.column(CSV_COLUMNS[i]);
+        }
+        if (!csv.isEmpty() && (columns[0] < 0 || columns[6] < 0)) {
+            throw new RuntimeException("Question CSV header must contain 'content' and 'answer' columns");
+        }
+
+        int imported = importQuestions(quizId, () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            return new QuestionDTO(null, CsvRecordReader.field(fields, columns[0]), CsvRecordReader.field(fields, columns[1]),
+                    CsvRecordReader.field(fields, columns[2]), CsvRecordReader.field(fields, columns[3]),
+                    CsvRecordReader.field(fields, columns[4]), CsvRecordReader.field(fields, columns[5]),
+                    CsvRecordReader.field(fields, columns[6]), quizId, CsvRecordReader.field(fields, columns[7]));
+        }, question -> {
+        });
+        return new QuestionImportResultDTO(quizId, imported);
+    }
+
+    // Stream a JSON question bank (an array of questions, or one per line) into the quiz
+    @Transactional(rollbackFor = Exception.class)
+    public QuestionImportResultDTO importQuestionsJson(Long quizId, InputStream body) throws IOException {
+        MappingIterator<QuestionDTO> questions = objectMapper.readerFor(QuestionDTO.class).readValues(body);
+        int imported = importQuestions(quizId, () -> questions.hasNextValue() ? questions.nextValue() : null,
+                question -> {
+                });
+        return new QuestionImportResultDTO(quizId, imported);
+    }
+
+    private interface QuestionReader {
+        // Null once the input is exhausted
+        QuestionDTO next() throws IOException;
+    }
+
+    /**
+     * One authorization check, then persists row by row in the caller's transaction. The
+     * persistence context is flushed and cleared every JDBC batch, so memory stays flat
+     * however long the input is; any bad row rolls back the whole import.
+     */
+    private int importQuestions(Long quizId, QuestionReader reader, Consumer<Ques> onSaved) throws IOException {
+        User currentUser = getCurrentUser();
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+
+        // Check if user is admin or the creator of the quiz
+        if (!currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))
+                && !quiz.getCreator().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("You are not authorized to add questions to this quiz");
+        }
+        checkPoolNotInUse(quiz);
+
+        long[] importedIds = new long[256];
+        int row = 0;
+        while (true) {
+            QuestionDTO questionDTO;
+            try {
+                questionDTO = reader.next();
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Question " + (row + 1) + ": " + e.getOriginalMessage());
+            }
+            if (questionDTO == null) {
+                break;
+            }
+            row++;
+            if (questionDTO.getContent() == null || questionDTO.getContent().isBlank()) {
+                throw new RuntimeException("Question " + row + ": content is required");
+            }
+            if (questionDTO.getAnswer() == null || questionDTO.getAnswer().isBlank()) {
+                throw new RuntimeException("Question " + row + ": answer is required");
+            }
+
+            Ques question = new Ques();
+            question.setContent(questionDTO.getContent());
+            question.setImage(imageStore.internalize(questionDTO.getImage()));
+            question.setOption1(questionDTO.getOption1());
+            question.setOption2(questionDTO.getOption2());
+            question.setOption3(questionDTO.getOption3());
+            question.setOption4(questionDTO.getOption4());
+            question.setAnswer(questionDTO.getAnswer());
+            question.setTag(questionDTO.getTag());
+            question.setQuiz(quiz);
+            entityManager.persist(question);
+            onSaved.accept(question);
+            if (row > importedIds.length) {
+                importedIds = Arrays.copyOf(importedIds, importedIds.length * 2);
+            }
+            importedIds[row - 1] = question.getId();
+
+            if (row % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                quiz = entityManager.getReference(Quiz.class, quizId);
+            }
+        }
+
+        long[] committedIds = Arrays.copyOf(importedIds, row);
+        afterCommit(() -> {
+            answerKeyCache.invalidate(quizId);
+            questionPayloadCache.invalidate(quizId);
+            questionSearchService.indexAll(committedIds);
+        });
+        return row;
     }
-}
\ No newline at end of file
+}
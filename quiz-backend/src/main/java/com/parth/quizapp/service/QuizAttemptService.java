@@ -1,16 +1,25 @@
 package com.parth.quizapp.service;
 
 import com.parth.quizapp.Model.*;
+import com.parth.quizapp.analysis.KllSketch;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.datasource.ReplicaLagGuard;
 import com.parth.quizapp.dto.*;
 import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.leaderboard.Leaderboard;
 import com.parth.quizapp.repo.*;
+import com.parth.quizapp.repo.QuizAttemptRepo.AttemptSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,6 +39,21 @@ public class QuizAttemptService {
     @Autowired
     private quesRepo questionRepository;
 
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private DraftAnswerService draftAnswerService;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
     // Get current authenticated user
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -70,7 +94,14 @@ public class QuizAttemptService {
         attempt.setTotalQuestions(quiz.getNumberOfQuestions());
         attempt.setStartTime(LocalDateTime.now());
 
-        QuizAttempt savedAttempt = quizAttemptRepository.save(attempt);
+        // Flushed here so a concurrent start that slipped past the check above hits the
+        // one-in-progress unique index now rather than at commit
+        QuizAttempt savedAttempt;
+        try {
+            savedAttempt = quizAttemptRepository.saveAndFlush(attempt);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("A quiz attempt is already in progress");
+        }
         return convertToDTO(savedAttempt);
     }
 
@@ -87,87 +118,237 @@ public class QuizAttemptService {
                         currentUser, quiz, false)
                 .orElseThrow(() -> new RuntimeException("No active quiz attempt found"));
 
-        // Get all questions for this quiz
-        List<Ques> questions = questionRepository.findByQuiz(quiz);
+        QuizAttempt completedAttempt = gradeAttempt(attempt, quiz, submissionDTO.getAnswers());
+
+        return convertToResultDTO(completedAttempt);
+    }
+
+    // Grade a submission accepted by the ingest journal; returns false if it was already graded
+    @Transactional
+    public boolean gradeSubmission(Long attemptId, Long studentId, QuizSubmissionDTO submissionDTO) {
+        QuizAttempt attempt = quizAttemptRepository.findWithQuizAndStudentById(attemptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt not found"));
+
+        if (attempt.isCompleted()) {
+            return false;
+        }
+        if (!attempt.getStudent().getId().equals(studentId)
+                || !attempt.getQuiz().getId().equals(submissionDTO.getQuizId())) {
+            throw new RuntimeException("Submission does not match quiz attempt " + attemptId);
+        }
+
+        gradeAttempt(attempt, attempt.getQuiz(), submissionDTO.getAnswers());
+        // Graded off the request thread, so the student's replica pin is not picked up automatically
+        replicaLagGuard.recordWrite(studentId);
+        return true;
+    }
+
+    // Autosave drafts for an in-progress attempt (write-behind, see DraftAnswerService)
+    public void saveDraftAnswers(Long attemptId, Map<Long, String> answers) {
+        draftAnswerService.saveDrafts(attemptId, answers);
+    }
+
+    private QuizAttempt gradeAttempt(QuizAttempt attempt, Quiz quiz, Map<Long, String> submittedAnswers) {
+        // Submitted answers win over autosaved drafts for the same question
+        Map<Long, String> answers = draftAnswerService.takeDrafts(attempt);
+        if (submittedAnswers != null) {
+            answers.putAll(submittedAnswers);
+        }
+
+        // Grade against the cached answer key; questions are only referenced, never loaded
+        AnswerKey answerKey = answerKeyCache.get(quiz.getId());
 
         int correctAnswers = 0;
         int totalScore = 0;
-        int marksPerQuestion = quiz.getMaxMarks() / quiz.getNumberOfQuestions();
+        // Marks and draw size as fixed when the attempt started
+        int marksPerQuestion = attempt.getTotalMarks() / attempt.getTotalQuestions();
+        boolean shuffled = quiz.isShuffleQuestions();
+        // A pooled attempt is graded on the questions it drew, re-derived from the attempt id
+        int[] drawn = quiz.isQuestionPool()
+                ? AttemptShuffle.draw(attempt.getId(), answerKey, attempt.getTotalQuestions())
+                : null;
+        int graded = drawn != null ? drawn.length : answerKey.size();
+        List<StudentAnswer> studentAnswers = new ArrayList<>(graded);
 
         // Process each answer
-        for (Ques question : questions) {
-            String selectedAnswer = submissionDTO.getAnswers().get(question.getId());
+        for (int g = 0; g < graded; g++) {
+            int i = drawn != null ? drawn[g] : g;
+            long questionId = answerKey.questionId(i);
+            String selectedAnswer = answers.get(questionId);
+            if (shuffled) {
+                // Answers (and autosaved drafts) name the options as this attempt displayed them
+                selectedAnswer = AttemptShuffle.toStored(attempt.getId(), questionId, selectedAnswer);
+            }
 
             StudentAnswer studentAnswer = new StudentAnswer();
             studentAnswer.setQuizAttempt(attempt);
-            studentAnswer.setQuestion(question);
+            studentAnswer.setQuestion(questionRepository.getReferenceById(questionId));
             studentAnswer.setSelectedAnswer(selectedAnswer);
-            studentAnswer.checkAnswer();
+            studentAnswer.setCorrect(answerKey.isCorrect(i, selectedAnswer));
 
             if (studentAnswer.isCorrect()) {
                 correctAnswers++;
                 totalScore += marksPerQuestion;
             }
 
-            studentAnswerRepository.save(studentAnswer);
+            studentAnswers.add(studentAnswer);
         }
 
+        // Written as JDBC batches of hibernate.jdbc.batch_size on flush
+        studentAnswerRepository.saveAll(studentAnswers);
+
         // Update attempt with results
         attempt.setScore(totalScore);
         attempt.setCorrectAnswers(correctAnswers);
         attempt.completeAttempt();
+        quizStatisticsService.recordAttempt(quiz.getId(), totalScore, attempt.getTotalMarks());
+        leaderboardService.recordAttempt(quiz.getId(), quiz.isActive(), toLeaderboardEntry(attempt));
 
-        QuizAttempt completedAttempt = quizAttemptRepository.save(attempt);
-
-        return convertToResultDTO(completedAttempt);
+        return quizAttemptRepository.save(attempt);
     }
 
     // Get quiz results for a specific attempt
+    @Transactional(readOnly = true)
     public QuizResultDTO getQuizResult(Long attemptId) {
         User currentUser = getCurrentUser();
 
-        QuizAttempt attempt = quizAttemptRepository.findById(attemptId)
+        AttemptSummary attempt = quizAttemptRepository.findSummaryById(attemptId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt not found"));
 
-        // Check authorization
-        boolean isStudent = attempt.getStudent().getId().equals(currentUser.getId());
-        boolean isTeacher = (attempt.getQuiz().getCreator() != null &&
-                attempt.getQuiz().getCreator().getId().equals(currentUser.getId())) ||
-                (attempt.getQuiz().getTeacher() != null &&
-                        attempt.getQuiz().getTeacher().getId().equals(currentUser.getId()));
+        checkCanViewAttempt(attempt, currentUser);
+
+        return convertToResultDTO(attempt);
+    }
+
+    // Whether an attempt has been graded (for submission status polling)
+    @Transactional(readOnly = true)
+    public boolean isAttemptCompleted(Long attemptId) {
+        User currentUser = getCurrentUser();
+
+        AttemptSummary attempt = quizAttemptRepository.findSummaryById(attemptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt not found"));
+
+        checkCanViewAttempt(attempt, currentUser);
+
+        return attempt.isCompleted();
+    }
+
+    private void checkCanViewAttempt(AttemptSummary attempt, User currentUser) {
+        boolean isStudent = attempt.getStudentId().equals(currentUser.getId());
+        boolean isTeacher = currentUser.getId().equals(attempt.getCreatorId()) ||
+                currentUser.getId().equals(attempt.getTeacherId());
         boolean isAdmin = currentUser.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
         if (!isStudent && !isTeacher && !isAdmin) {
             throw new RuntimeException("You are not authorized to view this result");
         }
-
-        return convertToResultDTO(attempt);
     }
 
     // Get all quiz attempts for current student
+    @Transactional(readOnly = true)
     public List<QuizAttemptDTO> getMyQuizAttempts() {
         User currentUser = getCurrentUser();
 
-        return quizAttemptRepository.findByStudentAndCompleted(currentUser, true)
+        return quizAttemptRepository.findCompletedSummariesByStudent(currentUser.getId())
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     // Get all quiz results for quizzes created by current teacher
+    @Transactional(readOnly = true)
     public List<QuizAttemptDTO> getQuizResultsForMyQuizzes() {
         User currentUser = getCurrentUser();
 
-        return quizAttemptRepository.findByTeacher(currentUser)
+        return quizAttemptRepository.findCompletedSummariesByTeacher(currentUser.getId())
                 .stream()
-                .filter(QuizAttempt::isCompleted)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    // Page through quiz results for quizzes created by current teacher
+    @Transactional(readOnly = true)
+    public CursorPageDTO<QuizAttemptDTO> getQuizResultsForMyQuizzesPage(PageQuery pageQuery) {
+        User currentUser = getCurrentUser();
+        KeysetCursor cursor = KeysetCursor.decode(pageQuery.getCursor());
+        Limit limit = Limit.of(pageQuery.limit() + 1);
+
+        List<AttemptSummary> rows = pageQuery.isAscending()
+                ? quizAttemptRepository.findSummaryPageByTeacherAsc(currentUser.getId(), pageQuery.getCompleted(),
+                pageQuery.getFrom(), pageQuery.getTo(), cursor.time(), cursor.id(), limit)
+                : quizAttemptRepository.findSummaryPageByTeacherDesc(currentUser.getId(), pageQuery.getCompleted(),
+                pageQuery.getFrom(), pageQuery.getTo(), cursor.time(), cursor.id(), limit);
+
+        return KeysetCursor.page(rows, pageQuery.limit(), this::convertToDTO,
+                row -> new KeysetCursor(row.getStartTime(), row.getId()));
+    }
+
     // Get all attempts for a specific quiz (for teachers)
+    @Transactional(readOnly = true)
     public List<QuizAttemptDTO> getQuizAttempts(Long quizId) {
+        checkCanViewQuizResults(quizId);
+
+        return quizAttemptRepository.findCompletedSummariesByQuiz(quizId)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Page through attempts for a specific quiz (for teachers)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<QuizAttemptDTO> getQuizAttemptsPage(Long quizId, PageQuery pageQuery) {
+        checkCanViewQuizResults(quizId);
+        KeysetCursor cursor = KeysetCursor.decode(pageQuery.getCursor());
+        Limit limit = Limit.of(pageQuery.limit() + 1);
+
+        List<AttemptSummary> rows = pageQuery.isAscending()
+                ? quizAttemptRepository.findSummaryPageByQuizAsc(quizId, pageQuery.getCompleted(),
+                pageQuery.getFrom(), pageQuery.getTo(), cursor.time(), cursor.id(), limit)
+                : quizAttemptRepository.findSummaryPageByQuizDesc(quizId, pageQuery.getCompleted(),
+                pageQuery.getFrom(), pageQuery.getTo(), cursor.time(), cursor.id(), limit);
+
+        return KeysetCursor.page(rows, pageQuery.limit(), this::convertToDTO,
+                row -> new KeysetCursor(row.getStartTime(), row.getId()));
+    }
+
+    // Best completed attempts of a quiz in rank order (for teachers)
+    public List<LeaderboardEntryDTO> getLeaderboard(Long quizId, int limit) {
+        checkCanViewQuizResults(quizId);
+
+        List<Leaderboard.Entry> top = leaderboardService.top(quizId, Math.max(1, Math.min(limit, 100)));
+        int participants = leaderboardService.size(quizId);
+        List<LeaderboardEntryDTO> leaderboard = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            leaderboard.add(convertToLeaderboardDTO(top.get(i), i + 1, participants));
+        }
+        return leaderboard;
+    }
+
+    // Leaderboard position of a completed attempt
+    public LeaderboardEntryDTO getAttemptRank(Long attemptId) {
+        User currentUser = getCurrentUser();
+
+        AttemptSummary attempt = quizAttemptRepository.findSummaryById(attemptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt not found"));
+
+        checkCanViewAttempt(attempt, currentUser);
+        if (!attempt.isCompleted()) {
+            throw new RuntimeException("This quiz attempt has not been submitted yet");
+        }
+
+        Leaderboard.Entry entry = toLeaderboardEntry(attempt);
+        return convertToLeaderboardDTO(entry, leaderboardService.rankOf(attempt.getQuizId(), entry),
+                leaderboardService.size(attempt.getQuizId()));
+    }
+
+    // Class-level score statistics for a quiz (read from the maintained aggregate)
+    public QuizStatisticsDTO getQuizStatistics(Long quizId) {
+        checkCanViewQuizResults(quizId);
+        return quizStatisticsService.getStatistics(quizId);
+    }
+
+    void checkCanViewQuizResults(Long quizId) {
         User currentUser = getCurrentUser();
 
         Quiz quiz = quizRepository.findById(quizId)
@@ -184,12 +365,6 @@ public class QuizAttemptService {
         if (!isTeacher && !isAdmin) {
             throw new RuntimeException("You are not authorized to view results for this quiz");
         }
-
-        return quizAttemptRepository.findByQuiz(quiz)
-                .stream()
-                .filter(QuizAttempt::isCompleted)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
     }
 
     // Convert QuizAttempt to DTO
@@ -219,6 +394,35 @@ public class QuizAttemptService {
         if (attempt.getTotalMarks() > 0) {
             dto.setPercentage((double) attempt.getScore() / attempt.getTotalMarks() * 100);
         }
+        if (attempt.isCompleted()) {
+            applyDistribution(dto, attempt.getQuiz().getId());
+        }
+
+        return dto;
+    }
+
+    // Convert projected attempt to DTO (User has no name/email columns, so both use the username)
+    private QuizAttemptDTO convertToDTO(AttemptSummary attempt) {
+        QuizAttemptDTO dto = new QuizAttemptDTO();
+        dto.setId(attempt.getId());
+        dto.setQuizId(attempt.getQuizId());
+        dto.setQuizTitle(attempt.getQuizTitle());
+        dto.setStudentName(attempt.getStudentUsername());
+        dto.setStudentEmail(attempt.getStudentUsername());
+        dto.setScore(attempt.getScore());
+        dto.setTotalMarks(attempt.getTotalMarks());
+        dto.setCorrectAnswers(attempt.getCorrectAnswers());
+        dto.setTotalQuestions(attempt.getTotalQuestions());
+        dto.setStartTime(attempt.getStartTime());
+        dto.setEndTime(attempt.getEndTime());
+        dto.setCompleted(attempt.isCompleted());
+
+        if (attempt.getTotalMarks() > 0) {
+            dto.setPercentage((double) attempt.getScore() / attempt.getTotalMarks() * 100);
+        }
+        if (attempt.isCompleted()) {
+            applyDistribution(dto, attempt.getQuizId());
+        }
 
         return dto;
     }
@@ -243,17 +447,75 @@ public class QuizAttemptService {
             resultDTO.setPercentage((double) attempt.getScore() / attempt.getTotalMarks() * 100);
         }
 
-        // Get detailed question results
-        List<StudentAnswer> studentAnswers = studentAnswerRepository.findByQuizAttempt(attempt);
-        List<QuestionResultDTO> questionResults = studentAnswers.stream()
-                .map(this::convertToQuestionResultDTO)
-                .collect(Collectors.toList());
+        // Get detailed question results in one projected query
+        resultDTO.setQuestionResults(studentAnswerRepository.findQuestionResults(attempt.getId()));
+        if (attempt.isCompleted()) {
+            resultDTO.setRank(leaderboardService.rankOf(attempt.getQuiz().getId(), toLeaderboardEntry(attempt)));
+            applyDistribution(resultDTO, attempt.getQuiz().getId());
+        }
 
-        resultDTO.setQuestionResults(questionResults);
+        return resultDTO;
+    }
+
+    // Convert projected attempt to detailed result DTO
+    private QuizResultDTO convertToResultDTO(AttemptSummary attempt) {
+        QuizResultDTO resultDTO = new QuizResultDTO();
+        resultDTO.setAttemptId(attempt.getId());
+        resultDTO.setQuizTitle(attempt.getQuizTitle());
+        resultDTO.setStudentName(attempt.getStudentUsername());
+        resultDTO.setScore(attempt.getScore());
+        resultDTO.setTotalMarks(attempt.getTotalMarks());
+        resultDTO.setCorrectAnswers(attempt.getCorrectAnswers());
+        resultDTO.setTotalQuestions(attempt.getTotalQuestions());
+        resultDTO.setCompletedAt(attempt.getEndTime());
+
+        if (attempt.getTotalMarks() > 0) {
+            resultDTO.setPercentage((double) attempt.getScore() / attempt.getTotalMarks() * 100);
+        }
+
+        resultDTO.setQuestionResults(studentAnswerRepository.findQuestionResults(attempt.getId()));
+        if (attempt.isCompleted()) {
+            resultDTO.setRank(leaderboardService.rankOf(attempt.getQuizId(), toLeaderboardEntry(attempt)));
+            applyDistribution(resultDTO, attempt.getQuizId());
+        }
 
         return resultDTO;
     }
 
+    // Percentile of the attempt's score plus class median and p90, from the quiz's score sketch
+    private void applyDistribution(QuizAttemptDTO dto, Long quizId) {
+        KllSketch.SortedView distribution = quizStatisticsService.getScoreDistribution(quizId);
+        if (!distribution.isEmpty()) {
+            dto.setPercentile(distribution.percentileRank(dto.getScore()));
+            dto.setClassMedian(distribution.quantile(0.5));
+            dto.setClassP90(distribution.quantile(0.9));
+        }
+    }
+
+    private void applyDistribution(QuizResultDTO resultDTO, Long quizId) {
+        KllSketch.SortedView distribution = quizStatisticsService.getScoreDistribution(quizId);
+        if (!distribution.isEmpty()) {
+            resultDTO.setPercentile(distribution.percentileRank(resultDTO.getScore()));
+            resultDTO.setClassMedian(distribution.quantile(0.5));
+            resultDTO.setClassP90(distribution.quantile(0.9));
+        }
+    }
+
+    private Leaderboard.Entry toLeaderboardEntry(QuizAttempt attempt) {
+        return new Leaderboard.Entry(attempt.getId(), attempt.getStudent().getUsername(), attempt.getScore(),
+                attempt.getTotalMarks(), attempt.getEndTime());
+    }
+
+    private Leaderboard.Entry toLeaderboardEntry(AttemptSummary attempt) {
+        return new Leaderboard.Entry(attempt.getId(), attempt.getStudentUsername(), attempt.getScore(),
+                attempt.getTotalMarks(), attempt.getEndTime());
+    }
+
+    private LeaderboardEntryDTO convertToLeaderboardDTO(Leaderboard.Entry entry, int rank, int participants) {
+        return new LeaderboardEntryDTO(rank, participants, entry.attemptId(), entry.studentName(),
+                entry.score(), entry.totalMarks(), entry.endTime());
+    }
+
     // Helper method to get display name from User
     private String getDisplayName(User user) {
         try {
@@ -296,22 +558,4 @@ public class QuizAttemptService {
         // Fallback to username
         return user.getUsername();
     }
-
-    // Convert StudentAnswer to QuestionResultDTO
-    private QuestionResultDTO convertToQuestionResultDTO(StudentAnswer studentAnswer) {
-        QuestionResultDTO dto = new QuestionResultDTO();
-        Ques question = studentAnswer.getQuestion();
-
-        dto.setQuestionId(question.getId());
-        dto.setQuestionContent(question.getContent());
-        dto.setCorrectAnswer(question.getAnswer());
-        dto.setSelectedAnswer(studentAnswer.getSelectedAnswer());
-        dto.setCorrect(studentAnswer.isCorrect());
-        dto.setOption1(question.getOption1());
-        dto.setOption2(question.getOption2());
-        dto.setOption3(question.getOption3());
-        dto.setOption4(question.getOption4());
-
-        return dto;
-    }
 }
\ No newline at end of file
@@ -2,16 +2,28 @@ package com.parth.quizapp.service;
 
 import com.parth.quizapp.Model.Quiz;
 import com.parth.quizapp.Model.User;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.cache.QuestionPayloadCache;
+import com.parth.quizapp.cache.QuizCatalogCache;
+import com.parth.quizapp.cache.QuizCatalogCache.Versioned;
+import com.parth.quizapp.dto.CursorPageDTO;
+import com.parth.quizapp.dto.PageQuery;
 import com.parth.quizapp.dto.QuizDTO;
 import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.repo.QuizAttemptRepo;
 import com.parth.quizapp.repo.quesRepo;
 import com.parth.quizapp.repo.quizRepo;
+import com.parth.quizapp.repo.quizRepo.QuizSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -23,6 +35,20 @@ public class QuizService {
     private quizRepo quizRepository;
     @Autowired
     private quesRepo quesRepository;
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private QuizCatalogCache quizCatalogCache;
+    @Autowired
+    private QuestionPayloadCache questionPayloadCache;
+    @Autowired
+    private QuestionSearchService questionSearchService;
 
     // Get current authenticated user
     private User getCurrentUser() {
@@ -44,24 +70,60 @@ public class QuizService {
         quizDTO.setMaxMarks(quiz.getMaxMarks());
         quizDTO.setNumberOfQuestions(quiz.getNumberOfQuestions());
         quizDTO.setActive(quiz.isActive());
+        quizDTO.setShuffleQuestions(quiz.isShuffleQuestions());
+        quizDTO.setQuestionPool(quiz.isQuestionPool());
         return quizDTO;
     }
 
+    private QuizDTO convertToDTO(QuizSummary quiz) {
+        return new QuizDTO(quiz.getId(), quiz.getCode(), quiz.getTitle(), quiz.getDescription(),
+                quiz.getMaxMarks(), quiz.getNumberOfQuestions(), quiz.isActive(), quiz.isShuffleQuestions(),
+                quiz.isQuestionPool());
+    }
+
     // Get all quizzes (Admin access)
+    @Transactional(readOnly = true)
     public List<QuizDTO> getAllQuizzes() {
         return quizRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
+    // Page through all quizzes (Admin access)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<QuizDTO> getAllQuizzesPage(PageQuery pageQuery) {
+        KeysetCursor cursor = KeysetCursor.decode(pageQuery.getCursor());
+        Limit limit = Limit.of(pageQuery.limit() + 1);
+
+        List<QuizSummary> rows = pageQuery.isAscending()
+                ? quizRepository.findPageAsc(pageQuery.getActive(), pageQuery.getFrom(), pageQuery.getTo(),
+                cursor.time(), cursor.id(), limit)
+                : quizRepository.findPageDesc(pageQuery.getActive(), pageQuery.getFrom(), pageQuery.getTo(),
+                cursor.time(), cursor.id(), limit);
+
+        return KeysetCursor.page(rows, pageQuery.limit(), this::convertToDTO,
+                row -> new KeysetCursor(row.getCreatedAt(), row.getId()));
+    }
+
     // Get active quizzes (Student access)
     public List<QuizDTO> getActiveQuizzes() {
-        return quizRepository.findByActive(true).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return getActiveQuizzesVersioned().body();
+    }
+
+    // Active quizzes with their ETag, served from the catalog cache while unchanged
+    public Versioned<List<QuizDTO>> getActiveQuizzesVersioned() {
+        return quizCatalogCache.getActive(() -> {
+            List<Quiz> quizzes = new ArrayList<>(quizRepository.findByActive(true));
+            quizzes.sort(Comparator.comparing(Quiz::getId));
+            // Shared by every caller while cached, so handed out unmodifiable
+            return QuizCatalogCache.versioned(quizzes.stream()
+                    .map(this::convertToDTO)
+                    .toList(), quizzes);
+        });
     }
 
     // Get quizzes created by current user (Teacher access)
+    @Transactional(readOnly = true)
     public List<QuizDTO> getMyQuizzes() {
         User currentUser = getCurrentUser();
         return quizRepository.findByCreator(currentUser).stream()
@@ -71,9 +133,16 @@ public class QuizService {
 
     // Get quiz by ID
     public QuizDTO getQuizById(Long quizId) {
-        Quiz quiz = quizRepository.findById(quizId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
-        return convertToDTO(quiz);
+        return getQuizByIdVersioned(quizId).body();
+    }
+
+    // Quiz with its ETag, served from the catalog cache while unchanged
+    public Versioned<QuizDTO> getQuizByIdVersioned(Long quizId) {
+        return quizCatalogCache.getQuiz(quizId, () -> {
+            Quiz quiz = quizRepository.findById(quizId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+            return QuizCatalogCache.versioned(convertToDTO(quiz), quiz);
+        });
     }
 
     // Create new quiz
@@ -96,10 +165,13 @@ public class QuizService {
         quiz.setMaxMarks(quizDTO.getMaxMarks());
         quiz.setNumberOfQuestions(quizDTO.getNumberOfQuestions());
         quiz.setActive(quizDTO.isActive());
+        quiz.setShuffleQuestions(quizDTO.isShuffleQuestions());
+        quiz.setQuestionPool(quizDTO.isQuestionPool());
         quiz.setCreator(currentUser);
         quiz.setTeacher(currentUser);
 
         Quiz savedQuiz = quizRepository.save(quiz);
+        quizCatalogCache.invalidate(savedQuiz.getId());
         return convertToDTO(savedQuiz);
     }
 
@@ -114,13 +186,16 @@ public class QuizService {
         boolean isAdmin = currentUser.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
-        boolean isOwner = quiz.getCreator().equals(currentUser) || quiz.getTeacher().equals(currentUser);
+        boolean isOwner =
+                (quiz.getCreator() != null && quiz.getCreator().getId().equals(currentUser.getId())) ||
+                        (quiz.getTeacher() != null && quiz.getTeacher().getId().equals(currentUser.getId()));
 
         if (!isAdmin && !isOwner) {
             throw new RuntimeException("You are not authorized to update this quiz");
         }
 
-        long existingQuestions = quesRepository.countByQuiz(quiz);
+        // A pool may hold more questions than an attempt draws
+        long existingQuestions = quizDTO.isQuestionPool() ? 0 : quesRepository.countByQuiz(quiz);
         if (quizDTO.getNumberOfQuestions() < existingQuestions) {
             throw new IllegalArgumentException(
                     String.format("Cannot reduce to %d questions. Already has %d questions",
@@ -128,11 +203,21 @@ public class QuizService {
             );
         }
 
+        // Attempts in progress re-derive their questions and option order from these settings
+        boolean reshapesAttempts = quizDTO.getNumberOfQuestions() != quiz.getNumberOfQuestions()
+                || quizDTO.isQuestionPool() != quiz.isQuestionPool()
+                || quizDTO.isShuffleQuestions() != quiz.isShuffleQuestions();
+        if (reshapesAttempts && quizAttemptRepository.existsByQuizIdAndCompletedFalse(quizId)) {
+            throw new RuntimeException("Question count, pool and shuffle settings cannot change while attempts are in progress");
+        }
+
         quiz.setTitle(quizDTO.getTitle());
         quiz.setDescription(quizDTO.getDescription());
         quiz.setMaxMarks(quizDTO.getMaxMarks());
         quiz.setNumberOfQuestions(quizDTO.getNumberOfQuestions());
         quiz.setActive(quizDTO.isActive());
+        quiz.setShuffleQuestions(quizDTO.isShuffleQuestions());
+        quiz.setQuestionPool(quizDTO.isQuestionPool());
 
         // Update code if provided
         if (quizDTO.getCode() != null && !quizDTO.getCode().trim().isEmpty()) {
@@ -140,6 +225,9 @@ public class QuizService {
         }
 
         Quiz updatedQuiz = quizRepository.save(quiz);
+        answerKeyCache.invalidate(quizId);
+        quizCatalogCache.invalidate(quizId);
+        questionPayloadCache.invalidate(quizId);
         return convertToDTO(updatedQuiz);
     }
 
@@ -154,13 +242,21 @@ public class QuizService {
         boolean isAdmin = currentUser.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
-        boolean isOwner = quiz.getCreator().equals(currentUser) || quiz.getTeacher().equals(currentUser);
+        boolean isOwner =
+                (quiz.getCreator() != null && quiz.getCreator().getId().equals(currentUser.getId())) ||
+                        (quiz.getTeacher() != null && quiz.getTeacher().getId().equals(currentUser.getId()));
 
         if (!isAdmin && !isOwner) {
             throw new RuntimeException("You are not authorized to update this quiz");
         }
 
         quizRepository.delete(quiz);
+        quizStatisticsService.delete(quizId);
+        leaderboardService.evict(quizId);
+        answerKeyCache.invalidate(quizId);
+        quizCatalogCache.invalidate(quizId);
+        questionPayloadCache.invalidate(quizId);
+        questionSearchService.removeQuiz(quizId);
     }
 
     // Toggle quiz active status (for Admin/Teacher)
@@ -184,6 +280,12 @@ public class QuizService {
 
         quiz.setActive(!quiz.isActive());
         Quiz updatedQuiz = quizRepository.save(quiz);
+        quizCatalogCache.invalidate(quizId);
+        questionPayloadCache.invalidate(quizId);
+        if (!updatedQuiz.isActive()) {
+            // Closed quizzes get reloaded on demand instead of holding memory
+            leaderboardService.evict(quizId);
+        }
         return convertToDTO(updatedQuiz);
     }
 
@@ -0,0 +1,276 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.QuizStatistics;
+import com.parth.quizapp.analysis.KllSketch;
+import com.parth.quizapp.dto.QuizStatisticsDTO;
+import com.parth.quizapp.repo.QuizAttemptRepo;
+import com.parth.quizapp.repo.QuizStatisticsRepo;
+import com.parth.quizapp.repo.quizRepo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the per-quiz {@link QuizStatistics} row. Grading applies count, sums, extremes and the
+ * histogram bucket as one atomic delta in its own transaction; only the approximate percentile sketch
+ * is buffered per node and merged on a timer, so submissions never (de)serialize it. A rebuild from
+ * quiz_attempt repairs everything.
+ */
+@Service
+public class QuizStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStatisticsService.class);
+
+    @Autowired
+    private QuizStatisticsRepo quizStatisticsRepository;
+
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Autowired
+    private quizRepo quizRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${quiz.stats.pass-percentage:50}")
+    private int passPercentage;
+
+    @Value("${quiz.stats.distribution-cache-ttl-ms:30000}")
+    private long distributionCacheTtlMs;
+
+    private final Map<Long, CachedDistribution> distributions = new ConcurrentHashMap<>();
+    // Committed scores not merged into the row's sketch yet
+    private final Map<Long, PendingScores> pending = new ConcurrentHashMap<>();
+
+    private record CachedDistribution(long loadedAt, KllSketch sketch, KllSketch.SortedView view) {
+    }
+
+    // Key under which the grading transaction sees its own, not yet committed, score
+    private record PendingDistributionKey(Long quizId) {
+    }
+
+    private static final class PendingScores {
+        private final KllSketch sketch = new KllSketch();
+
+        synchronized void add(int score) {
+            sketch.update(score);
+        }
+
+        synchronized PendingScores addAll(PendingScores other) {
+            synchronized (other) {
+                sketch.merge(other.sketch);
+            }
+            return this;
+        }
+
+        synchronized void applyTo(QuizStatistics statistics) {
+            statistics.mergeSketch(sketch);
+        }
+
+        synchronized void mergeInto(KllSketch target) {
+            target.merge(sketch);
+        }
+    }
+
+    // Called from the grading transaction; only the short atomic UPDATE holds the row until commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAttempt(Long quizId, int score, int totalMarks) {
+        int bucket = QuizStatistics.bucketOf(score, totalMarks);
+        if (quizStatisticsRepository.addAttempt(quizId, score, (long) score * score, bucket) == 0) {
+            quizStatisticsRepository.insertIfAbsent(quizId);
+            quizStatisticsRepository.addAttempt(quizId, score, (long) score * score, bucket);
+        }
+
+        PendingDistributionKey key = new PendingDistributionKey(quizId);
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+        TransactionSynchronizationManager.bindResource(key, score);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                if (status == STATUS_COMMITTED) {
+                    // compute() rather than computeIfAbsent(): flush() cannot take the entry mid-add
+                    pending.compute(quizId, (id, scores) -> {
+                        PendingScores buffered = scores != null ? scores : new PendingScores();
+                        buffered.add(score);
+                        return buffered;
+                    });
+                }
+            }
+        });
+    }
+
+    // Merges buffered scores into the sketch, one short row lock per quiz
+    @Scheduled(fixedDelayString = "${quiz.stats.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Long quizId : pending.keySet()) {
+            PendingScores scores = pending.remove(quizId);
+            if (scores == null) {
+                continue;
+            }
+            try {
+                byte[] sketch = transaction.execute(status -> {
+                    QuizStatistics statistics = lockStatistics(quizId);
+                    scores.applyTo(statistics);
+                    return statistics.getScoreSketch();
+                });
+                KllSketch persisted = KllSketch.fromBytes(sketch);
+                distributions.put(quizId, new CachedDistribution(System.currentTimeMillis(), persisted, persisted.sortedView()));
+            } catch (RuntimeException e) {
+                log.warn("Merging score distribution of quiz {} failed, will retry: {}", quizId, e.getMessage());
+                pending.merge(quizId, scores, PendingScores::addAll);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // Score distribution for percentiles; up to quiz.stats.distribution-cache-ttl-ms behind other nodes
+    public KllSketch.SortedView getScoreDistribution(Long quizId) {
+        CachedDistribution cached = distributions.get(quizId);
+        long now = System.currentTimeMillis();
+        if (cached == null || now - cached.loadedAt() >= distributionCacheTtlMs) {
+            KllSketch persisted = quizStatisticsRepository.findById(quizId)
+                    .map(QuizStatistics::getScoreSketch)
+                    .map(KllSketch::fromBytes)
+                    .orElseGet(KllSketch::new);
+            cached = new CachedDistribution(now, persisted, persisted.sortedView());
+            distributions.put(quizId, cached);
+        }
+
+        Object own = TransactionSynchronizationManager.getResource(new PendingDistributionKey(quizId));
+        PendingScores scores = pending.get(quizId);
+        if (own == null && scores == null) {
+            return cached.view();
+        }
+        KllSketch merged = new KllSketch();
+        merged.merge(cached.sketch());
+        if (scores != null) {
+            scores.mergeInto(merged);
+        }
+        if (own != null) {
+            merged.update((Integer) own);
+        }
+        return merged.sortedView();
+    }
+
+    public QuizStatisticsDTO getStatistics(Long quizId) {
+        QuizStatistics statistics = quizStatisticsRepository.findById(quizId)
+                .orElseGet(() -> new QuizStatistics(quizId));
+        PendingScores scores = pending.get(quizId);
+        if (scores != null) {
+            // Detached copy with the buffered scores in its sketch; only flush() writes them
+            statistics = new QuizStatistics(statistics.getQuizId(), statistics.getAttemptCount(),
+                    statistics.getScoreSum(), statistics.getScoreSumOfSquares(), statistics.getMinScore(),
+                    statistics.getMaxScore(), statistics.getHistogram() != null ? statistics.getHistogram().clone() : null,
+                    statistics.getScoreSketch());
+            scores.applyTo(statistics);
+        }
+        return convertToDTO(statistics);
+    }
+
+    // Recompute the aggregate from completed attempts
+    @Transactional
+    public QuizStatisticsDTO rebuild(Long quizId) {
+        QuizStatistics statistics = lockStatistics(quizId);
+        // Everything buffered here is committed and therefore counted below; scores still buffered on
+        // other nodes end up in the sketch twice, which is why it is only approximate
+        pending.remove(quizId);
+        statistics.reset();
+
+        List<Object[]> groups = quizAttemptRepository.findScoreDistribution(quizId);
+        for (Object[] group : groups) {
+            int score = ((Number) group[0]).intValue();
+            int totalMarks = ((Number) group[1]).intValue();
+            statistics.record(score, totalMarks, ((Number) group[2]).longValue());
+        }
+        distributions.remove(quizId);
+        return convertToDTO(statistics);
+    }
+
+    // Repair job; disabled unless quiz.stats.rebuild-cron is set
+    @Scheduled(cron = "${quiz.stats.rebuild-cron:-}")
+    public void rebuildAll() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Long quizId : quizRepository.findAllIds()) {
+            try {
+                transaction.executeWithoutResult(status -> rebuild(quizId));
+            } catch (RuntimeException e) {
+                log.warn("Rebuilding statistics for quiz {} failed: {}", quizId, e.getMessage());
+            }
+        }
+    }
+
+    public void delete(Long quizId) {
+        pending.remove(quizId);
+        distributions.remove(quizId);
+        if (quizStatisticsRepository.existsById(quizId)) {
+            quizStatisticsRepository.deleteById(quizId);
+        }
+    }
+
+    private QuizStatistics lockStatistics(Long quizId) {
+        return quizStatisticsRepository.findForUpdate(quizId).orElseGet(() -> {
+            quizStatisticsRepository.insertIfAbsent(quizId);
+            return quizStatisticsRepository.findForUpdate(quizId).orElseThrow();
+        });
+    }
+
+    private QuizStatisticsDTO convertToDTO(QuizStatistics statistics) {
+        long count = statistics.getAttemptCount();
+        int[] histogram = statistics.getHistogram() != null
+                ? statistics.getHistogram().clone()
+                : new int[QuizStatistics.BUCKETS];
+
+        double average = count > 0 ? (double) statistics.getScoreSum() / count : 0;
+        double variance = count > 0 ? (double) statistics.getScoreSumOfSquares() / count - average * average : 0;
+
+        long passed = 0;
+        int firstPassingBucket = Math.min(QuizStatistics.BUCKETS - 1, passPercentage * QuizStatistics.BUCKETS / 100);
+        for (int i = firstPassingBucket; i < histogram.length; i++) {
+            passed += histogram[i];
+        }
+
+        KllSketch.SortedView distribution = sortedView(statistics);
+
+        return new QuizStatisticsDTO(
+                statistics.getQuizId(),
+                count,
+                average,
+                Math.sqrt(Math.max(0, variance)),
+                statistics.getMinScore(),
+                statistics.getMaxScore(),
+                count > 0 ? (double) passed / count : 0,
+                histogram,
+                distribution.isEmpty() ? null : distribution.quantile(0.5),
+                distribution.isEmpty() ? null : distribution.quantile(0.9)
+        );
+    }
+
+    private KllSketch.SortedView sortedView(QuizStatistics statistics) {
+        return statistics.getScoreSketch() == null
+                ? KllSketch.SortedView.empty()
+                : KllSketch.fromBytes(statistics.getScoreSketch()).sortedView();
+    }
+}
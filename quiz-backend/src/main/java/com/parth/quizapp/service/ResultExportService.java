@@ -0,0 +1,273 @@
+package com.parth.quizapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams completed attempts of a quiz as CSV or NDJSON straight from a forward-only
+ * JDBC cursor, so memory use does not depend on class size.
+ */
+@Service
+public class ResultExportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String ATTEMPT_COLUMNS =
+            "SELECT qa.id, u.username, qa.score, qa.total_marks, qa.correct_answers, qa.total_questions, " +
+                    "qa.start_time, qa.end_time";
+
+    private static final String ATTEMPTS_SQL = ATTEMPT_COLUMNS +
+            " FROM quiz_attempt qa JOIN app_user u ON u.id = qa.student_id" +
+            " WHERE qa.quiz_id = ? AND qa.completed = true ORDER BY qa.id";
+
+    // One row per (attempt, answer); consecutive rows of the same attempt are folded into one record
+    private static final String ATTEMPTS_WITH_ANSWERS_SQL = ATTEMPT_COLUMNS +
+            ", sa.question_id, sa.selected_answer, sa.is_correct" +
+            " FROM quiz_attempt qa JOIN app_user u ON u.id = qa.student_id" +
+            " LEFT JOIN student_answer sa ON sa.quiz_attempt_id = qa.id" +
+            " WHERE qa.quiz_id = ? AND qa.completed = true ORDER BY qa.id, sa.question_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quiz.export.fetch-size:500}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Export format must be 'csv' or 'ndjson'");
+        }
+    }
+
+    // Authorize on the request thread; the returned export runs later on the async writer thread
+    public void checkCanExport(Long quizId) {
+        quizAttemptService.checkCanViewQuizResults(quizId);
+    }
+
+    public void export(Long quizId, Format format, boolean includeAnswers, OutputStream out) throws IOException {
+        long[] questionIds = includeAnswers ? questionIds(quizId) : new long[0];
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RecordWriter records = format == Format.CSV
+                ? new CsvRecordWriter(writer, questionIds)
+                : new NdjsonRecordWriter(objectMapper.getFactory().createGenerator(writer).setRootValueSeparator(null));
+
+        records.start();
+        // Postgres only honours the fetch size inside a transaction
+        readOnlyTransaction.executeWithoutResult(status -> {
+            if (includeAnswers) {
+                streamWithAnswers(quizId, records);
+            } else {
+                cursorTemplate.query(ATTEMPTS_SQL, rs -> {
+                    writeUnchecked(records, AttemptRow.from(rs), Map.of());
+                }, quizId);
+            }
+        });
+        records.finish();
+        writer.flush();
+    }
+
+    private void streamWithAnswers(Long quizId, RecordWriter records) {
+        Map<Long, String[]> answers = new HashMap<>();
+        AttemptRow[] current = new AttemptRow[1];
+
+        cursorTemplate.query(ATTEMPTS_WITH_ANSWERS_SQL, rs -> {
+            long attemptId = rs.getLong(1);
+            if (current[0] != null && current[0].id != attemptId) {
+                writeUnchecked(records, current[0], answers);
+                answers.clear();
+            }
+            if (current[0] == null || current[0].id != attemptId) {
+                current[0] = AttemptRow.from(rs);
+            }
+            long questionId = rs.getLong(9);
+            if (!rs.wasNull()) {
+                answers.put(questionId, new String[]{rs.getString(10), String.valueOf(rs.getBoolean(11))});
+            }
+        }, quizId);
+
+        if (current[0] != null) {
+            writeUnchecked(records, current[0], answers);
+        }
+    }
+
+    private long[] questionIds(Long quizId) {
+        AnswerKey answerKey = answerKeyCache.get(quizId);
+        long[] ids = new long[answerKey.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = answerKey.questionId(i);
+        }
+        return ids;
+    }
+
+    private static void writeUnchecked(RecordWriter records, AttemptRow row, Map<Long, String[]> answers) {
+        try {
+            records.write(row, answers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record AttemptRow(long id, String student, int score, int totalMarks, int correctAnswers,
+                              int totalQuestions, Timestamp startTime, Timestamp endTime) {
+
+        static AttemptRow from(ResultSet rs) throws SQLException {
+            return new AttemptRow(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getInt(4),
+                    rs.getInt(5), rs.getInt(6), rs.getTimestamp(7), rs.getTimestamp(8));
+        }
+
+        double percentage() {
+            return totalMarks > 0 ? (double) score / totalMarks * 100 : 0;
+        }
+    }
+
+    private interface RecordWriter {
+        void start() throws IOException;
+
+        // answers maps question id to {selectedAnswer, isCorrect}
+        void write(AttemptRow row, Map<Long, String[]> answers) throws IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private static final class CsvRecordWriter implements RecordWriter {
+        private final Writer writer;
+        private final long[] questionIds;
+
+        private CsvRecordWriter(Writer writer, long[] questionIds) {
+            this.writer = writer;
+            this.questionIds = questionIds;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write("attemptId,student,score,totalMarks,correctAnswers,totalQuestions,percentage,startTime,endTime");
+            for (long questionId : questionIds) {
+                writer.write(",q" + questionId);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(AttemptRow row, Map<Long, String[]> answers) throws IOException {
+            writer.write(Long.toString(row.id()));
+            writer.write(',');
+            writer.write(escape(row.student()));
+            writer.write("," + row.score() + "," + row.totalMarks() + "," + row.correctAnswers()
+                    + "," + row.totalQuestions() + "," + String.format(Locale.ROOT, "%.2f", row.percentage()) + ",");
+            writer.write(row.startTime() == null ? "" : row.startTime().toLocalDateTime().toString());
+            writer.write(',');
+            writer.write(row.endTime() == null ? "" : row.endTime().toLocalDateTime().toString());
+            for (long questionId : questionIds) {
+                String[] answer = answers.get(questionId);
+                writer.write(',');
+                writer.write(answer == null ? "" : escape(answer[0]));
+            }
+            writer.write('\n');
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                // Spreadsheets would evaluate the cell as a formula
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static final class NdjsonRecordWriter implements RecordWriter {
+        private final JsonGenerator json;
+
+        private NdjsonRecordWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(AttemptRow row, Map<Long, String[]> answers) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("attemptId", row.id());
+            json.writeStringField("student", row.student());
+            json.writeNumberField("score", row.score());
+            json.writeNumberField("totalMarks", row.totalMarks());
+            json.writeNumberField("correctAnswers", row.correctAnswers());
+            json.writeNumberField("totalQuestions", row.totalQuestions());
+            json.writeNumberField("percentage", row.percentage());
+            json.writeStringField("startTime", row.startTime() == null ? null : row.startTime().toLocalDateTime().toString());
+            json.writeStringField("endTime", row.endTime() == null ? null : row.endTime().toLocalDateTime().toString());
+            if (!answers.isEmpty()) {
+                json.writeObjectFieldStart("answers");
+                for (Map.Entry<Long, String[]> answer : answers.entrySet()) {
+                    json.writeObjectFieldStart(answer.getKey().toString());
+                    json.writeStringField("selectedAnswer", answer.getValue()[0]);
+                    json.writeBooleanField("correct", Boolean.parseBoolean(answer.getValue()[1]));
+                    json.writeEndObject();
+                }
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+            // Through the generator, so records and separators stay in its buffer until finish()
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.parth.quizapp.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.dto.RosterImportResultDTO;
+import com.parth.quizapp.dto.RosterRowResultDTO;
+import com.parth.quizapp.dto.RosterRowResultDTO.Status;
+import com.parth.quizapp.dto.RosterUserDTO;
+import com.parth.quizapp.repo.UserRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Registers a roster of users from a streamed CSV or JSON body. Rows are processed in
+ * chunks: existing usernames are found with one IN query, passwords are hashed in
+ * parallel, and the chunk is inserted as one JDBC batch in its own transaction.
+ * Already-registered usernames are reported as EXISTS rather than failing, so
+ * re-posting the same roster after a partial failure picks up where it stopped.
+ */
+@Service
+public class RosterImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(RosterImportService.class);
+
+    // DO NOTHING covers a username registered between the existence check and the insert
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO app_user (username, password, role) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final int MAX_USERNAME_LENGTH = 255;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${quiz.auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${quiz.roster-import.batch-size:500}")
+    private int batchSize;
+
+    // 0 = one per CPU
+    @Value("${quiz.roster-import.hash-threads:0}")
+    private int hashThreads;
+
+    private BCryptPasswordEncoder encoder;
+    private ForkJoinPool hashPool;
+    private TransactionTemplate chunkTransaction;
+
+    private interface RosterReader {
+        // Null once the roster is exhausted
+        RosterUserDTO next() throws IOException;
+    }
+
+    private record RosterRow(int row, RosterUserDTO user) {
+    }
+
+    @PostConstruct
+    void init() {
+        // Not the login encoder: a large import must not fill the login queue and cause 429s
+        encoder = new BCryptPasswordEncoder(bcryptStrength);
+        hashPool = new ForkJoinPool(hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public RosterImportResultDTO importCsv(InputStream body) throws IOException {
+        return importRoster(csvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
+    // A JSON array of users, or one user object per line
+    public RosterImportResultDTO importJson(InputStream body) throws IOException {
+        MappingIterator<RosterUserDTO> users = objectMapper.readerFor(RosterUserDTO.class).readValues(body);
+        return importRoster(() -> users.hasNextValue() ? users.nextValue() : null);
+    }
+
+    private RosterImportResultDTO importRoster(RosterReader reader) throws IOException {
+        List<RosterRowResultDTO> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<RosterRow> chunk = new ArrayList<>(batchSize);
+
+        int row = 0;
+        RosterUserDTO user;
+        while ((user = reader.next()) != null) {
+            row++;
+            String problem = validate(user);
+            if (problem != null) {
+                results.add(new RosterRowResultDTO(row, user.getUsername(), Status.INVALID, problem));
+            } else if (!seen.add(user.getUsername())) {
+                results.add(new RosterRowResultDTO(row, user.getUsername(), Status.DUPLICATE,
+                        "Username appears earlier in the roster"));
+            } else {
+                chunk.add(new RosterRow(row, user));
+                if (chunk.size() >= batchSize) {
+                    importChunk(chunk, results);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, results);
+        }
+
+        results.sort(Comparator.comparingInt(RosterRowResultDTO::getRow));
+        int created = 0;
+        int invalid = 0;
+        for (RosterRowResultDTO result : results) {
+            if (result.getStatus() == Status.CREATED) {
+                created++;
+            } else if (result.getStatus() == Status.INVALID) {
+                invalid++;
+            }
+        }
+        log.info("Roster import: {} rows, {} created, {} invalid", row, created, invalid);
+        return new RosterImportResultDTO(row, created, row - created - invalid, invalid, results);
+    }
+
+    private void importChunk(List<RosterRow> chunk, List<RosterRowResultDTO> results) {
+        Set<String> existing = new HashSet<>(userRepo.findExistingUsernames(
+                chunk.stream().map(r -> r.user().getUsername()).toList()));
+
+        List<RosterRow> pending = new ArrayList<>(chunk.size());
+        for (RosterRow row : chunk) {
+            if (existing.contains(row.user().getUsername())) {
+                results.add(new RosterRowResultDTO(row.row(), row.user().getUsername(), Status.EXISTS,
+                        "Username already registered"));
+            } else {
+                pending.add(row);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashPool.submit(() -> pending.parallelStream()
+                .map(row -> encoder.encode(row.user().getPassword()))
+                .toList()).join();
+
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            RosterUserDTO user = pending.get(i).user();
+            batch.add(new Object[]{user.getUsername(), hashes.get(i), roleOf(user).name()});
+        }
+        int[] counts = chunkTransaction.execute(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch));
+
+        for (int i = 0; i < pending.size(); i++) {
+            RosterRow row = pending.get(i);
+            // 0 rows: lost the race to another registration; negative: driver did not report a count
+            boolean inserted = counts[i] != 0;
+            results.add(new RosterRowResultDTO(row.row(), row.user().getUsername(),
+                    inserted ? Status.CREATED : Status.EXISTS,
+                    inserted ? null : "Username already registered"));
+        }
+    }
+
+    private static String validate(RosterUserDTO user) {
+        if (user.getUsername() == null || user.getUsername().isBlank()) {
+            return "Username is required";
+        }
+        user.setUsername(user.getUsername().trim());
+        if (user.getUsername().length() > MAX_USERNAME_LENGTH) {
+            return "Username is longer than " + MAX_USERNAME_LENGTH + " characters";
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return "Password is required";
+        }
+        try {
+            roleOf(user);
+        } catch (IllegalArgumentException e) {
+            return "Unknown role: " + user.getRole();
+        }
+        return null;
+    }
+
+    private static Role roleOf(RosterUserDTO user) {
+        String role = user.getRole();
+        return role == null || role.isBlank() ? Role.STUDENT : Role.valueOf(role.trim().toUpperCase());
+    }
+
+    // Header row names the columns (username, password, optional role) in any order
+    private static RosterReader csvReader(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        if (csv.isEmpty()) {
+            return () -> null;
+        }
+        int usernameColumn = csv.column("username");
+        int passwordColumn = csv.column("password");
+        int roleColumn = csv.column("role");
+        if (usernameColumn < 0 || passwordColumn < 0) {
+            throw new RuntimeException("Roster CSV header must contain 'username' and 'password' columns");
+        }
+
+        return () -> {
+            List<String> fields = csv.next();
+            return fields == null ? null : new RosterUserDTO(CsvRecordReader.field(fields, usernameColumn),
+                    CsvRecordReader.field(fields, passwordColumn), CsvRecordReader.field(fields, roleColumn));
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdown();
+    }
+}
@@ -0,0 +1,249 @@
+package com.parth.quizapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.dto.QuizResultDTO;
+import com.parth.quizapp.dto.QuizSubmissionDTO;
+import com.parth.quizapp.dto.SubmissionStatusDTO;
+import com.parth.quizapp.ingest.SubmissionJournal;
+import com.parth.quizapp.ingest.SubmissionStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts quiz submissions into a local journal and grades them on a small worker pool,
+ * so request threads never wait for a database connection at exam close.
+ */
+@Service
+public class SubmissionIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionIngestService.class);
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.ingest.journal.path:data/submission-journal.dat}")
+    private String journalPath;
+
+    @Value("${quiz.ingest.journal.capacity-mb:64}")
+    private int journalCapacityMb;
+
+    @Value("${quiz.ingest.journal.force-on-append:true}")
+    private boolean forceOnAppend;
+
+    @Value("${quiz.ingest.workers:2}")
+    private int workers;
+
+    @Value("${quiz.ingest.queue-size:1000}")
+    private int queueSize;
+
+    @Value("${quiz.ingest.status-retention-ms:600000}")
+    private long statusRetentionMs;
+
+    private SubmissionJournal journal;
+    private ThreadPoolExecutor gradingPool;
+    private final Map<Long, TrackedSubmission> submissions = new ConcurrentHashMap<>();
+
+    private static final class TrackedSubmission {
+        private final long studentId;
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile SubmissionStatus status = SubmissionStatus.ACCEPTED;
+        private volatile String message;
+        private volatile long updatedAt = System.currentTimeMillis();
+
+        private TrackedSubmission(long studentId) {
+            this.studentId = studentId;
+        }
+
+        private void finish(SubmissionStatus status, String message) {
+            this.message = message;
+            this.updatedAt = System.currentTimeMillis();
+            this.status = status;
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        // A single mapped buffer is indexed by int, so the journal cannot reach 2 GiB
+        long capacity = journalCapacityMb * 1024L * 1024;
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("quiz.ingest.journal.capacity-mb must be between 1 and 2047, was " + journalCapacityMb);
+        }
+        journal = new SubmissionJournal(Path.of(journalPath), (int) capacity, forceOnAppend);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        gradingPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "submission-grader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("quiz.ingest.pending", journal, SubmissionJournal::getPendingCount).register(meterRegistry);
+        Gauge.builder("quiz.ingest.queue_depth", gradingPool, p -> p.getQueue().size()).register(meterRegistry);
+    }
+
+    // Replay anything accepted but not yet graded before the last shutdown
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        for (SubmissionJournal.Entry entry : journal.pendingEntries()) {
+            TrackedSubmission tracked = submissions.computeIfAbsent(entry.attemptId(),
+                    id -> new TrackedSubmission(entry.studentId()));
+            enqueue(entry, tracked);
+        }
+    }
+
+    // Append the submission to the journal and acknowledge without grading it. No query runs here:
+    // the attempt id comes from the client, and the worker checks it belongs to this student and quiz
+    public SubmissionStatusDTO accept(QuizSubmissionDTO submissionDTO) {
+        User currentUser = getCurrentUser();
+        Long attemptId = submissionDTO.getAttemptId();
+        if (attemptId == null) {
+            throw new RuntimeException("attemptId is required for asynchronous submission");
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(submissionDTO);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid quiz submission");
+        }
+
+        SubmissionJournal.Entry entry = null;
+        TrackedSubmission tracked;
+        synchronized (this) {
+            TrackedSubmission existing = submissions.get(attemptId);
+            if (existing != null && existing.status == SubmissionStatus.ACCEPTED) {
+                if (existing.studentId != currentUser.getId()) {
+                    throw new RuntimeException("Submission does not match quiz attempt " + attemptId);
+                }
+                return toDTO(attemptId, existing);
+            }
+
+            tracked = new TrackedSubmission(currentUser.getId());
+            try {
+                int offset = journal.append(attemptId, currentUser.getId(), submissionDTO.getQuizId(), payload);
+                entry = new SubmissionJournal.Entry(offset, attemptId, currentUser.getId(),
+                        submissionDTO.getQuizId(), payload);
+                submissions.put(attemptId, tracked);
+            } catch (IllegalStateException journalFull) {
+                log.warn("Submission journal full, grading attempt {} synchronously", attemptId);
+            }
+        }
+
+        if (entry == null) {
+            // Journal is full: fall back to grading on the request thread
+            QuizResultDTO result = quizAttemptService.submitQuiz(submissionDTO);
+            return new SubmissionStatusDTO(result.getAttemptId(), SubmissionStatus.COMPLETED, null);
+        }
+
+        enqueue(entry, tracked);
+        return toDTO(attemptId, tracked);
+    }
+
+    public SubmissionStatusDTO getStatus(Long attemptId) {
+        TrackedSubmission tracked = submissions.get(attemptId);
+        if (tracked == null) {
+            SubmissionStatus status = quizAttemptService.isAttemptCompleted(attemptId)
+                    ? SubmissionStatus.COMPLETED
+                    : SubmissionStatus.IN_PROGRESS;
+            return new SubmissionStatusDTO(attemptId, status, null);
+        }
+
+        User currentUser = getCurrentUser();
+        boolean isAdmin = currentUser.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (tracked.studentId != currentUser.getId() && !isAdmin) {
+            throw new RuntimeException("You are not authorized to view this submission");
+        }
+        return toDTO(attemptId, tracked);
+    }
+
+    // Re-queue entries left pending by transient failures or a full queue, and forget old statuses
+    @Scheduled(fixedDelayString = "${quiz.ingest.sweep-interval-ms:5000}")
+    public void sweep() {
+        if (journal.getPendingCount() > 0) {
+            for (SubmissionJournal.Entry entry : journal.pendingEntries()) {
+                TrackedSubmission tracked = submissions.computeIfAbsent(entry.attemptId(),
+                        id -> new TrackedSubmission(entry.studentId()));
+                enqueue(entry, tracked);
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - statusRetentionMs;
+        submissions.values().removeIf(t -> t.status != SubmissionStatus.ACCEPTED && t.updatedAt < cutoff);
+    }
+
+    private void enqueue(SubmissionJournal.Entry entry, TrackedSubmission tracked) {
+        if (!tracked.queued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            gradingPool.execute(() -> drain(entry, tracked));
+        } catch (RejectedExecutionException e) {
+            // Stays pending in the journal; the sweeper picks it up later
+            tracked.queued.set(false);
+        }
+    }
+
+    private void drain(SubmissionJournal.Entry entry, TrackedSubmission tracked) {
+        try {
+            QuizSubmissionDTO submissionDTO = objectMapper.readValue(entry.payload(), QuizSubmissionDTO.class);
+            quizAttemptService.gradeSubmission(entry.attemptId(), entry.studentId(), submissionDTO);
+            tracked.finish(SubmissionStatus.COMPLETED, null);
+            journal.markDrained(entry.offset());
+        } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+            log.warn("Grading attempt {} deferred: {}", entry.attemptId(), e.getMessage());
+            tracked.queued.set(false);
+        } catch (Exception e) {
+            log.error("Grading attempt {} failed", entry.attemptId(), e);
+            tracked.finish(SubmissionStatus.FAILED, e.getMessage());
+            journal.markDrained(entry.offset());
+        }
+    }
+
+    private SubmissionStatusDTO toDTO(Long attemptId, TrackedSubmission tracked) {
+        return new SubmissionStatusDTO(attemptId, tracked.status, tracked.message);
+    }
+
+    // Get current authenticated user
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException, InterruptedException {
+        gradingPool.shutdown();
+        gradingPool.awaitTermination(10, TimeUnit.SECONDS);
+        journal.close();
+    }
+}
@@ -0,0 +1,186 @@
+package com.parth.quizapp.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed question images on local disk. Each image is stored once, named by the
+ * SHA-256 of its bytes plus an extension sniffed from its magic bytes and sharded by the first
+ * two hex digits, so an image shared by many questions is one file and its URL never changes
+ * meaning. Questions keep only the URL.
+ */
+@Component
+public class ImageStore {
+
+    public static final String URL_PREFIX = "/api/images/";
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}\\.(png|jpg|gif|webp)");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quiz.images.path:data/images}")
+    private String path;
+
+    @Value("${quiz.images.max-bytes:5242880}")
+    private long maxBytes;
+
+    private Path root;
+    private Counter stored;
+    private Counter deduplicated;
+
+    public record StoredImage(String hash, String name, String contentType, long size, boolean created) {
+        public String url() {
+            return URL_PREFIX + name;
+        }
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Path.of(path);
+        Files.createDirectories(root);
+        stored = Counter.builder("quiz.images.stored").register(meterRegistry);
+        deduplicated = Counter.builder("quiz.images.deduplicated").register(meterRegistry);
+    }
+
+    // Streams the upload to a temp file while hashing it, then moves it into place unless already stored
+    public StoredImage store(InputStream in) throws IOException {
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            byte[] head = new byte[12];
+            int headLength = 0;
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[16384];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new RuntimeException("Image is larger than " + maxBytes + " bytes");
+                    }
+                    if (headLength < head.length) {
+                        int copied = Math.min(n, head.length - headLength);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                    }
+                    sha256.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+
+            String extension = sniff(head, headLength);
+            if (extension == null) {
+                throw new RuntimeException("Only PNG, JPEG, GIF and WebP images are supported");
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String name = hash + "." + extension;
+            Path target = resolve(name);
+
+            boolean created = !Files.exists(target);
+            if (created) {
+                Files.createDirectories(target.getParent());
+                // A concurrent upload of the same bytes may win the rename; the content is identical either way
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                stored.increment();
+            } else {
+                deduplicated.increment();
+            }
+            return new StoredImage(hash, name, contentType(name), size, created);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Replaces an inline base64 data URI with the URL of the stored image; URLs and null pass through.
+    // Written before the question is saved, so a failed write rolls the question back; a file left by a
+    // rolled-back question is merely unreferenced, and reused if the same image comes again
+    public String internalize(String image) {
+        if (image == null || !image.startsWith("data:")) {
+            return image;
+        }
+        int comma = image.indexOf(',');
+        if (comma < 0 || !image.substring(0, comma).endsWith(";base64")) {
+            throw new RuntimeException("Inline images must be base64 data URIs");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(image.substring(comma + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Inline image is not valid base64");
+        }
+        try {
+            return store(new ByteArrayInputStream(bytes)).url();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The file of a stored image, or null for names that are malformed or not stored
+    public Path find(String name) {
+        if (!NAME.matcher(name).matches()) {
+            return null;
+        }
+        Path file = resolve(name);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public static String hashOf(String name) {
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    public static String contentType(String name) {
+        return switch (name.substring(name.lastIndexOf('.') + 1)) {
+            case "png" -> "image/png";
+            case "jpg" -> "image/jpeg";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private Path resolve(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    private static String sniff(byte[] head, int length) {
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "png";
+        }
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "gif";
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
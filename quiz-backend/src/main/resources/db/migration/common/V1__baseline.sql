@@ -0,0 +1,76 @@
+-- Schema as Hibernate generated it (ddl-auto=update) before migrations took over.
+-- Existing databases are baselined at this version and start from V2.
+
+create table app_user (
+    id bigint generated by default as identity,
+    password varchar(255) not null,
+    role varchar(255) not null check (role in ('ADMIN', 'TEACHER', 'STUDENT')),
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table quiz (
+    active boolean not null,
+    max_marks integer not null,
+    number_of_questions integer not null,
+    created_at timestamp(6),
+    creator_id bigint,
+    id bigint generated by default as identity,
+    teacher_id bigint,
+    code varchar(255) not null unique,
+    description varchar(255),
+    title varchar(255),
+    primary key (id)
+);
+
+create table ques (
+    id bigint generated by default as identity,
+    quiz_id bigint,
+    content varchar(5000),
+    answer varchar(255),
+    image varchar(255),
+    option1 varchar(255),
+    option2 varchar(255),
+    option3 varchar(255),
+    option4 varchar(255),
+    primary key (id)
+);
+
+create table options (
+    id bigint generated by default as identity,
+    question_id bigint not null,
+    text varchar(255) not null,
+    primary key (id)
+);
+
+create table quiz_attempt (
+    completed boolean not null,
+    correct_answers integer not null,
+    score integer not null,
+    total_marks integer not null,
+    total_questions integer not null,
+    end_time timestamp(6),
+    id bigint generated by default as identity,
+    quiz_id bigint not null,
+    start_time timestamp(6),
+    student_id bigint not null,
+    primary key (id)
+);
+
+create table student_answer (
+    is_correct boolean not null,
+    id bigint generated by default as identity,
+    question_id bigint not null,
+    quiz_attempt_id bigint not null,
+    selected_answer varchar(255),
+    primary key (id)
+);
+
+alter table options add constraint FKr5dfpvqfhw92dp0o666csm5y7 foreign key (question_id) references ques (id);
+alter table ques add constraint FK3m293p0jl7klf429qamouj3wq foreign key (quiz_id) references quiz (id);
+alter table quiz add constraint FK53v7r8ejv6irtxch5r596nshs foreign key (creator_id) references app_user (id);
+alter table quiz add constraint FK6mopvb308sggswwsn8iqxd3gq foreign key (teacher_id) references app_user (id);
+alter table quiz_attempt add constraint FK8l6wmgul0rgeha0lp6abrp5fa foreign key (quiz_id) references quiz (id);
+alter table quiz_attempt add constraint FKoqf1itix546rafh9321r84y37 foreign key (student_id) references app_user (id);
+alter table student_answer add constraint FK1kpkgarpcqlo1igbiif4ofx3f foreign key (question_id) references ques (id);
+alter table student_answer add constraint FKipnr5xxm8gxxc2se0beu3v6f9 foreign key (quiz_attempt_id) references quiz_attempt (id);
@@ -0,0 +1,27 @@
+-- Columns and tables added since the baseline. "if not exists" keeps this safe on databases that
+-- ddl-auto=update already extended before they were baselined.
+
+-- Ids of the write-heavy tables come from pooled sequences (allocation size 50) instead of identity
+create sequence if not exists ques_seq start with 1 increment by 50;
+create sequence if not exists quiz_attempt_seq start with 1 increment by 50;
+create sequence if not exists student_answer_seq start with 1 increment by 50;
+
+alter table quiz add column if not exists version bigint default 0 not null;
+alter table quiz add column if not exists shuffle_questions boolean default false not null;
+alter table quiz add column if not exists question_pool boolean default false not null;
+
+alter table ques add column if not exists tag varchar(255);
+
+alter table quiz_attempt add column if not exists draft_answers varchar(65535);
+
+create table if not exists quiz_statistics (
+    max_score integer,
+    min_score integer,
+    attempt_count bigint not null,
+    quiz_id bigint not null,
+    score_sum bigint not null,
+    score_sum_of_squares bigint not null,
+    score_sketch bytea,
+    histogram integer array,
+    primary key (quiz_id)
+);
@@ -0,0 +1,11 @@
+-- Attempt lookups by student and quiz (in progress / completed checks, per-student history)
+create index idx_quiz_attempt_student_quiz_completed on quiz_attempt (student_id, quiz_id, completed);
+
+-- Answers of an attempt (grading, results, export); Postgres does not index foreign keys by itself
+create index idx_student_answer_attempt on student_answer (quiz_attempt_id);
+
+-- Questions of a quiz (answer key, question lists, pools)
+create index idx_ques_quiz on ques (quiz_id);
+
+-- Active quiz catalog
+create index idx_quiz_active on quiz (active);
@@ -0,0 +1,18 @@
+-- Same cleanup as on Postgres: keep the oldest attempt in progress, delete the unanswered others
+delete from student_answer s
+where s.quiz_attempt_id in (select a.id from quiz_attempt a
+                            where not a.completed
+                              and exists (select 1 from quiz_attempt b
+                                          where b.student_id = a.student_id and b.quiz_id = a.quiz_id
+                                            and not b.completed and b.id < a.id));
+
+delete from quiz_attempt a
+where not a.completed
+  and exists (select 1 from quiz_attempt b
+              where b.student_id = a.student_id and b.quiz_id = a.quiz_id and not b.completed and b.id < a.id);
+
+-- H2 has no partial indexes: this column is null once the attempt completes, and nulls never
+-- collide in a unique index, so only attempts in progress are constrained (as on Postgres)
+alter table quiz_attempt add column in_progress boolean generated always as (case when completed then null else true end);
+
+create unique index uq_quiz_attempt_in_progress on quiz_attempt (student_id, quiz_id, in_progress);
@@ -0,0 +1,10 @@
+-- Existing rows were numbered by identity columns; move each sequence past them. Hibernate's pooled
+-- optimizer hands out the 50 ids below the value it fetches, so leave a full block of headroom.
+select setval('ques_seq', (select coalesce(max(id), 0) from ques) + 50);
+select setval('quiz_attempt_seq', (select coalesce(max(id), 0) from quiz_attempt) + 50);
+select setval('student_answer_seq', (select coalesce(max(id), 0) from student_answer) + 50);
+
+-- Hibernate supplies the ids now
+alter table ques alter column id drop identity if exists;
+alter table quiz_attempt alter column id drop identity if exists;
+alter table student_answer alter column id drop identity if exists;
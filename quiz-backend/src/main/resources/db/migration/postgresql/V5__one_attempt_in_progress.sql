@@ -0,0 +1,17 @@
+-- Before this constraint a double-clicked start could leave two attempts in progress. Keep the
+-- oldest open one and delete the others: they were never answered, and closing them instead would
+-- count them as zero-score attempts and lock the student out as "already completed"
+delete from student_answer s
+where s.quiz_attempt_id in (select a.id from quiz_attempt a
+                            where not a.completed
+                              and exists (select 1 from quiz_attempt b
+                                          where b.student_id = a.student_id and b.quiz_id = a.quiz_id
+                                            and not b.completed and b.id < a.id));
+
+delete from quiz_attempt a
+where not a.completed
+  and exists (select 1 from quiz_attempt b
+              where b.student_id = a.student_id and b.quiz_id = a.quiz_id and not b.completed and b.id < a.id);
+
+-- At most one attempt in progress per student and quiz
+create unique index uq_quiz_attempt_in_progress on quiz_attempt (student_id, quiz_id) where not completed;
@@ -0,0 +1,38 @@
+package com.parth.quizapp;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every SQL string Hibernate prepares so tests can pin statement counts.
+ * Registered through hibernate.session_factory.statement_inspector in the test properties.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    // Statements prepared since the last reset, excluding sequence increments
+    public static List<String> statements() {
+        return STATEMENTS.stream()
+                .filter(sql -> !sql.toLowerCase().contains("next value for") && !sql.toLowerCase().contains("nextval"))
+                .toList();
+    }
+
+    public static long count(String prefix) {
+        return statements().stream()
+                .filter(sql -> sql.toLowerCase().startsWith(prefix.toLowerCase()))
+                .count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.parth.quizapp.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Accuracy is checked against exact ranks. With k = 200 the expected normalized rank error
+ * is below 1%; the tests allow 2% so the randomized compaction cannot make them flaky.
+ */
+class KllSketchTest {
+
+    private static final double RANK_TOLERANCE = 0.02;
+
+    @Test
+    void isExactWhileNothingHasBeenCompacted() {
+        KllSketch sketch = new KllSketch();
+        for (int i = 1; i <= 100; i++) {
+            sketch.update(i);
+        }
+        KllSketch.SortedView view = sketch.sortedView();
+
+        assertEquals(50.0, view.quantile(0.5));
+        assertEquals(90.0, view.quantile(0.9));
+        assertEquals(100.0, view.quantile(1.0));
+        assertEquals(49.5, view.percentileRank(50), 1e-9);
+    }
+
+    @Test
+    void quantilesStayWithinRankToleranceOfExact() {
+        Random random = new Random(7);
+        float[] data = new float[200_000];
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) random.nextGaussian();
+            sketch.update(data[i]);
+        }
+
+        assertQuantilesWithinTolerance(sketch.sortedView(), data);
+        assertEquals(data.length, sketch.sortedView().total());
+    }
+
+    @Test
+    void percentileRanksOfTiedScoresStayWithinTolerance() {
+        Random random = new Random(11);
+        int[] scores = new int[100_000];
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = Math.min(100, Math.max(0, (int) Math.round(60 + 15 * random.nextGaussian())));
+            sketch.update(scores[i]);
+        }
+        int[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        KllSketch.SortedView view = sketch.sortedView();
+
+        for (int score = 0; score <= 100; score += 5) {
+            double below = lowerBound(sorted, score);
+            double atMost = lowerBound(sorted, score + 1);
+            double exact = (below + atMost) / 2 / sorted.length * 100;
+            assertEquals(exact, view.percentileRank(score), RANK_TOLERANCE * 100, "score " + score);
+        }
+    }
+
+    @Test
+    void survivesSerializationCompactly() {
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < 1_000_000; i++) {
+            sketch.update(i % 1000);
+        }
+        byte[] bytes = sketch.toBytes();
+        KllSketch restored = KllSketch.fromBytes(bytes);
+
+        assertTrue(bytes.length < 4096, "sketch took " + bytes.length + " bytes");
+        assertEquals(sketch.size(), restored.size());
+        for (double q = 0.1; q < 1; q += 0.1) {
+            assertEquals(sketch.sortedView().quantile(q), restored.sortedView().quantile(q));
+        }
+    }
+
+    @Test
+    void mergedSketchesStayWithinRankToleranceOfExact() {
+        Random random = new Random(3);
+        float[] data = new float[100_000];
+        KllSketch left = new KllSketch();
+        KllSketch right = new KllSketch();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextFloat() * (i < data.length / 2 ? 1 : 3);
+            (i < data.length / 2 ? left : right).update(data[i]);
+        }
+        left.merge(right);
+
+        assertEquals(data.length, left.size());
+        assertQuantilesWithinTolerance(left.sortedView(), data);
+    }
+
+    private static void assertQuantilesWithinTolerance(KllSketch.SortedView view, float[] data) {
+        float[] sorted = data.clone();
+        Arrays.sort(sorted);
+        for (int percent = 1; percent < 100; percent++) {
+            double q = percent / 100.0;
+            float estimate = (float) view.quantile(q);
+            double exactRank = (double) upperBound(sorted, estimate) / sorted.length;
+            assertEquals(q, exactRank, RANK_TOLERANCE, "quantile " + q);
+        }
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int i = Arrays.binarySearch(sorted, value);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i > 0 && sorted[i - 1] == value) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int upperBound(float[] sorted, float value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
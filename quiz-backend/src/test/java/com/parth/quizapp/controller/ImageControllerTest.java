@@ -0,0 +1,149 @@
+package com.parth.quizapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.dto.ImageDTO;
+import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.jwt.JwtService;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String teacher;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        teacher = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Test
+    void uploadsAreDeduplicatedAndServedImmutableWithRanges() throws Exception {
+        byte[] png = png(4000);
+        ImageDTO first = upload(png, 201);
+        ImageDTO second = upload(png, 200);
+        assertEquals(first.getUrl(), second.getUrl());
+        assertEquals("/api/images/" + first.getHash() + ".png", first.getUrl());
+
+        // Served without a token
+        MvcResult whole = mockMvc.perform(get(first.getUrl()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + first.getHash() + "\""))
+                .andReturn();
+        assertArrayEquals(png, whole.getResponse().getContentAsByteArray());
+
+        MvcResult part = mockMvc.perform(get(first.getUrl()).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/4000"))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(png, 100, 200), part.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get(first.getUrl()).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+        mockMvc.perform(get(first.getUrl()).header(HttpHeaders.IF_NONE_MATCH, "\"" + first.getHash() + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/images/" + "0".repeat(64) + ".png"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/images/secret.png"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void nonImagesAreRejected() throws Exception {
+        mockMvc.perform(post("/api/images").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("not really a png"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void inlineQuestionImagesAreStoredAndReplacedByTheirUrl() throws Exception {
+        MvcResult quiz = mockMvc.perform(post("/api/quizzes").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QuizDTO(null, null, "Images", "d", 10, 5, true, false, false))))
+                .andExpect(status().isOk())
+                .andReturn();
+        long quizId = objectMapper.readValue(quiz.getResponse().getContentAsString(), QuizDTO.class).getId();
+
+        byte[] png = png(300);
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        QuestionDTO question = new QuestionDTO(null, "Which shape?", dataUri, "a", "b", "c", "d", "option1", quizId, null);
+        MvcResult saved = mockMvc.perform(post("/api/questions/quiz/" + quizId).header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(question)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String image = objectMapper.readValue(saved.getResponse().getContentAsString(), QuestionDTO.class).getImage();
+        assertEquals(upload(png, 200).getUrl(), image);
+
+        // An import that rolls back may leave its file unreferenced; the same image is then reused
+        byte[] discarded = png(301);
+        String json = "[{\"content\":\"Q1\",\"answer\":\"a\",\"image\":\"data:image/png;base64,"
+                + Base64.getEncoder().encodeToString(discarded) + "\"},{\"content\":\"Q2\",\"answer\":null}]";
+        mockMvc.perform(post("/api/questions/quiz/" + quizId + "/import").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest());
+        upload(discarded, 200);
+    }
+
+    private ImageDTO upload(byte[] image, int expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/images").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(image))
+                .andExpect(status().is(expectedStatus))
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), ImageDTO.class);
+    }
+
+    // PNG signature followed by random bytes; only the signature is checked
+    private static byte[] png(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        System.arraycopy(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 0, bytes, 0, 8);
+        return bytes;
+    }
+}
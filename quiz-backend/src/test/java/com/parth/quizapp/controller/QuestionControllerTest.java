@@ -0,0 +1,215 @@
+package com.parth.quizapp.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.SqlStatementCounter;
+import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.jwt.JwtService;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QuestionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String teacher;
+    private String student;
+
+    @BeforeEach
+    void setUp() {
+        teacher = bearer(Role.TEACHER);
+        student = bearer(Role.STUDENT);
+    }
+
+    @Test
+    void studentQuestionsAreServedFromPreRenderedBytes() throws Exception {
+        long quizId = createQuiz();
+        addQuestion(quizId, "What is 2 + 2?");
+        addQuestion(quizId, "What is 3 + 3?");
+
+        MvcResult first = fetch(quizId, student, null);
+        List<QuestionDTO> questions = parse(first.getResponse().getContentAsByteArray());
+        assertEquals(2, questions.size());
+        assertTrue(questions.stream().allMatch(q -> q.getAnswer() == null));
+
+        SqlStatementCounter.reset();
+        MvcResult gzipped = fetch(quizId, student, "gzip, deflate");
+        assertEquals(0, SqlStatementCounter.statements().size());
+        assertEquals("gzip", gzipped.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(first.getResponse().getHeader(HttpHeaders.ETAG), gzipped.getResponse().getHeader(HttpHeaders.ETAG));
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(
+                gzipped.getResponse().getContentAsByteArray())).readAllBytes();
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), inflated);
+        assertNull(fetch(quizId, student, "gzip;q=0, deflate").getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(fetch(quizId, student, "*;q=1, gzip; q=0.0").getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", fetch(quizId, student, "br;q=1.0, *;q=0.5").getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        addQuestion(quizId, "What is 4 + 4?");
+        assertEquals(3, parse(fetch(quizId, student, null).getResponse().getContentAsByteArray()).size());
+    }
+
+    @Test
+    void deactivatingTheQuizHidesCachedQuestionsFromStudents() throws Exception {
+        long quizId = createQuiz();
+        addQuestion(quizId, "What is 2 + 2?");
+        fetch(quizId, student, null);
+
+        mockMvc.perform(put("/api/quizzes/" + quizId + "/toggle-active").header(HttpHeaders.AUTHORIZATION, teacher))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/questions/quiz/" + quizId).header(HttpHeaders.AUTHORIZATION, student))
+                .andExpect(status().isBadRequest());
+        assertEquals(1, parse(fetch(quizId, teacher, null).getResponse().getContentAsByteArray()).size());
+    }
+
+    @Test
+    void csvQuestionBankIsImportedInBatches() throws Exception {
+        long quizId = createQuiz();
+        StringBuilder csv = new StringBuilder("content,option1,option2,option3,option4,answer\n");
+        csv.append("\"Which line\nbreaks, \"\"quoted\"\"?\",a,b,c,d,a\n");
+        for (int i = 2; i <= 120; i++) {
+            csv.append("Question ").append(i).append(",1,2,3,4,").append(i % 4 + 1).append('\n');
+        }
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(post("/api/questions/quiz/" + quizId + "/import").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(120));
+        // 120 rows in JDBC batches of 50
+        assertEquals(3, SqlStatementCounter.count("insert"));
+
+        List<QuestionDTO> questions = parse(fetch(quizId, student, null).getResponse().getContentAsByteArray());
+        assertEquals(120, questions.size());
+        assertEquals("Which line\nbreaks, \"quoted\"?", questions.get(0).getContent());
+    }
+
+    @Test
+    void badRowRollsBackTheWholeImport() throws Exception {
+        long quizId = createQuiz();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= 80; i++) {
+            json.append(i > 1 ? "," : "").append("{\"content\":\"Q").append(i).append("\",\"answer\":")
+                    .append(i == 75 ? "null" : "\"a\"").append('}');
+        }
+        json.append(']');
+
+        mockMvc.perform(post("/api/questions/quiz/" + quizId + "/import").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Question 75: answer is required"));
+        assertEquals(0, parse(fetch(quizId, student, null).getResponse().getContentAsByteArray()).size());
+
+        MvcResult bulk = mockMvc.perform(post("/api/questions/quiz/" + quizId + "/bulk").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"content\":\"Q1\",\"answer\":\"a\"},{\"content\":\"Q2\",\"answer\":\"b\"}]"))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<QuestionDTO> saved = parse(bulk.getResponse().getContentAsByteArray());
+        assertTrue(saved.stream().allMatch(q -> q.getId() != null && q.getAnswer() != null));
+        assertEquals(2, parse(fetch(quizId, student, null).getResponse().getContentAsByteArray()).size());
+    }
+
+    @Test
+    void questionBankSearchFollowsImportsAndDeletes() throws Exception {
+        long quizId = createQuiz();
+        String marker = "zymurgy" + quizId;
+        addQuestion(quizId, "What does " + marker + " study?");
+        mockMvc.perform(post("/api/questions/quiz/" + quizId + "/import").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType("text/csv")
+                        .content("content,answer\nIs " + marker + " " + marker + " about brewing?,yes\n"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/questions/search").param("q", marker).header(HttpHeaders.AUTHORIZATION, teacher))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].content").value("Is " + marker + " " + marker + " about brewing?"))
+                .andExpect(jsonPath("$[0].quizId").value(quizId))
+                .andExpect(jsonPath("$[0].answer").doesNotExist());
+        mockMvc.perform(get("/api/questions/search").param("q", marker).header(HttpHeaders.AUTHORIZATION, student))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(delete("/api/quizzes/" + quizId).header(HttpHeaders.AUTHORIZATION, teacher))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/questions/search").param("q", marker).header(HttpHeaders.AUTHORIZATION, teacher))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private MvcResult fetch(long quizId, String bearer, String acceptEncoding) throws Exception {
+        var request = get("/api/questions/quiz/" + quizId).header(HttpHeaders.AUTHORIZATION, bearer);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private List<QuestionDTO> parse(byte[] json) throws Exception {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    private long createQuiz() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/quizzes").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QuizDTO(null, null, "Arithmetic", "d", 10, 5, true, false, false))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), QuizDTO.class).getId();
+    }
+
+    private void addQuestion(long quizId, String content) throws Exception {
+        QuestionDTO question = new QuestionDTO(null, content, null, "2", "4", "6", "8", "4", quizId, null);
+        mockMvc.perform(post("/api/questions/quiz/" + quizId).header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(question)))
+                .andExpect(status().isOk());
+    }
+
+    private String bearer(Role role) {
+        User user = userRepo.save(User.builder()
+                .username(role.name().toLowerCase() + "-" + UUID.randomUUID())
+                .password("secret")
+                .role(role)
+                .build());
+        return "Bearer " + jwtService.generateToken(user);
+    }
+}
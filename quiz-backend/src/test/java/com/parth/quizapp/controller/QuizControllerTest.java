@@ -0,0 +1,119 @@
+package com.parth.quizapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.SqlStatementCounter;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.jwt.JwtService;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QuizControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User teacher = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        bearer = "Bearer " + jwtService.generateToken(teacher);
+    }
+
+    @Test
+    void unchangedActiveListIsRevalidatedWithoutTheDatabase() throws Exception {
+        long quizId = createQuiz();
+        String etag = get("/api/quizzes/active", null).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        SqlStatementCounter.reset();
+        assertEquals(304, get("/api/quizzes/active", etag).getResponse().getStatus());
+        assertEquals(0, SqlStatementCounter.statements().size());
+
+        mockMvc.perform(put("/api/quizzes/" + quizId + "/toggle-active").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        String changed = get("/api/quizzes/active", etag).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+        assertFalse(get("/api/quizzes/active", null).getResponse().getContentAsString()
+                .contains("\"id\":" + quizId + ","));
+    }
+
+    @Test
+    void quizEtagFollowsItsVersion() throws Exception {
+        long quizId = createQuiz();
+        String etag = get("/api/quizzes/" + quizId, null).getResponse().getHeader(HttpHeaders.ETAG);
+
+        SqlStatementCounter.reset();
+        MvcResult notModified = get("/api/quizzes/" + quizId, etag);
+        assertEquals(304, notModified.getResponse().getStatus());
+        assertEquals("", notModified.getResponse().getContentAsString());
+        assertEquals(0, SqlStatementCounter.statements().size());
+
+        QuizDTO update = new QuizDTO(null, null, "Renamed", "d", 10, 5, true, false, false);
+        mockMvc.perform(put("/api/quizzes/" + quizId).header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        MvcResult changed = get("/api/quizzes/" + quizId, etag);
+        assertEquals(200, changed.getResponse().getStatus());
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+        assertTrue(changed.getResponse().getContentAsString().contains("Renamed"));
+    }
+
+    private long createQuiz() throws Exception {
+        QuizDTO quiz = new QuizDTO(null, null, "Catalog", "d", 10, 5, true, false, false);
+        MvcResult result = mockMvc.perform(post("/api/quizzes").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(quiz)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), QuizDTO.class).getId();
+    }
+
+    private MvcResult get(String path, String ifNoneMatch) throws Exception {
+        var request = MockMvcRequestBuilders.get(path)
+                .header(HttpHeaders.AUTHORIZATION, bearer);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (ifNoneMatch == null) {
+            assertEquals(200, result.getResponse().getStatus());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,156 @@
+package com.parth.quizapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.SqlStatementCounter;
+import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuizAttemptDTO;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.dto.QuizSubmissionDTO;
+import com.parth.quizapp.jwt.JwtService;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String teacher;
+    private String student;
+
+    @BeforeEach
+    void setUp() {
+        teacher = bearer(Role.TEACHER);
+        student = bearer(Role.STUDENT);
+    }
+
+    @Test
+    void questionEndpointsLoadTheQuizButNotItsUsers() throws Exception {
+        long quizId = createQuiz();
+        long questionId = addQuestion(quizId, "What is 2 + 2?");
+
+        List<String> withAnswer = statements(get("/api/questions/" + questionId + "/with-answer"), teacher);
+        assertEquals(1, withAnswer.size(), withAnswer::toString);
+        assertTrue(withAnswer.get(0).contains(" join quiz "), withAnswer::toString);
+
+        // One transaction, so the loaded question is still managed and save() needs no merge select
+        String body = objectMapper.writeValueAsString(new QuestionDTO(null, "What is 3 + 1?", null, "2", "4", "6", "8", "4", quizId, null));
+        List<String> update = statements(put("/api/questions/" + questionId)
+                .contentType(MediaType.APPLICATION_JSON).content(body), teacher);
+        assertEquals(List.of("select", "update"), verbs(update), update::toString);
+
+        List<String> delete = statements(delete("/api/questions/" + questionId), teacher);
+        assertEquals(List.of("select", "select", "delete"), verbs(delete), delete::toString);
+
+        for (String sql : concat(withAnswer, update, delete)) {
+            assertFalse(sql.contains("app_user"), sql);
+        }
+    }
+
+    @Test
+    void attemptLifecycleFetchesOnlyWhatEachStepReads() throws Exception {
+        long quizId = createQuiz();
+        long first = addQuestion(quizId, "What is 2 + 2?");
+        long second = addQuestion(quizId, "What is 3 + 3?");
+        // Loads the student's principal, so it is not counted below
+        perform(get("/api/quizzes/active"), student);
+
+        // Quiz, completed check, in-progress lookup (joined to its student), insert
+        List<String> start = statements(post("/api/quiz-attempts/start/" + quizId), student);
+        assertEquals(List.of("select", "select", "select", "insert"), verbs(start), start::toString);
+        assertEquals(1, start.stream().filter(sql -> sql.contains("app_user")).count(), start::toString);
+        assertFalse(start.get(0).contains(" join "), start::toString);
+        long attemptId = objectMapper.readValue(perform(post("/api/quiz-attempts/start/" + quizId), student)
+                .getResponse().getContentAsString(), QuizAttemptDTO.class).getId();
+
+        Map<Long, String> answers = Map.of(first, "4", second, "6");
+        List<String> submit = statements(post("/api/quiz-attempts/submit").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new QuizSubmissionDTO(quizId, answers))), student);
+        // Quiz, attempt + student, answer key, statistics (delta update, row created by the first one), answers batch,
+        // attempt update, leaderboard rows, question results
+        assertEquals(11, submit.size(), submit::toString);
+        assertEquals(1, submit.stream().filter(sql -> sql.startsWith("insert into student_answer")).count());
+
+        List<String> result = statements(get("/api/quiz-attempts/result/" + attemptId), student);
+        assertEquals(2, result.size(), result::toString);
+    }
+
+    private List<String> statements(MockHttpServletRequestBuilder request, String bearer) throws Exception {
+        SqlStatementCounter.reset();
+        MvcResult result = perform(request, bearer);
+        assertEquals(200, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        return SqlStatementCounter.statements().stream().map(String::toLowerCase).toList();
+    }
+
+    private static List<String> verbs(List<String> statements) {
+        return statements.stream().map(sql -> sql.substring(0, sql.indexOf(' '))).toList();
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... lists) {
+        return Stream.of(lists).flatMap(List::stream).toList();
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request, String bearer) throws Exception {
+        return mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, bearer)).andReturn();
+    }
+
+    private long createQuiz() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/quizzes").header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new QuizDTO(null, null, "Arithmetic", "d", 10, 2, true, false, false))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), QuizDTO.class).getId();
+    }
+
+    private long addQuestion(long quizId, String content) throws Exception {
+        QuestionDTO question = new QuestionDTO(null, content, null, "2", "4", "6", "8", "4", quizId, null);
+        MvcResult result = mockMvc.perform(post("/api/questions/quiz/" + quizId).header(HttpHeaders.AUTHORIZATION, teacher)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(question)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), QuestionDTO.class).getId();
+    }
+
+    private String bearer(Role role) {
+        User user = userRepo.save(User.builder()
+                .username(role.name().toLowerCase() + "-" + UUID.randomUUID())
+                .password("secret")
+                .role(role)
+                .build());
+        return "Bearer " + jwtService.generateToken(user);
+    }
+}
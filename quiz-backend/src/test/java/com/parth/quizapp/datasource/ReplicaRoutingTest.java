@@ -0,0 +1,213 @@
+package com.parth.quizapp.datasource;
+
+import com.parth.quizapp.Model.Ques;
+import com.parth.quizapp.Model.Quiz;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.dto.QuizAttemptDTO;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.dto.QuizResultDTO;
+import com.parth.quizapp.dto.QuizSubmissionDTO;
+import com.parth.quizapp.exceptions.ResourceNotFoundException;
+import com.parth.quizapp.repo.UserRepo;
+import com.parth.quizapp.repo.quesRepo;
+import com.parth.quizapp.repo.quizRepo;
+import com.parth.quizapp.service.ItemAnalysisService;
+import com.parth.quizapp.service.QuizAttemptService;
+import com.parth.quizapp.service.QuizService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two embedded databases that never replicate, so every read shows which one served it
+@SpringBootTest(properties = {
+        "quiz.datasource.replica.jdbc-url=" + ReplicaRoutingTest.REPLICA_URL,
+        "quiz.datasource.replica.username=sa",
+        "quiz.datasource.pin-after-write-ms=" + ReplicaRoutingTest.PIN_MS
+})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:quizapp-replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final long PIN_MS = 1000;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private quizRepo quizRepository;
+
+    @Autowired
+    private quesRepo questionRepository;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyServiceMethodsReadTheReplicaUntilTheUserWrites() throws Exception {
+        User teacher = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("INSERT INTO app_user (id, username, password, role) VALUES (?, ?, 'secret', 'TEACHER')",
+                teacher.getId(), teacher.getUsername());
+        long replicaQuizId = 1_000_000 + teacher.getId();
+        replica.update("INSERT INTO quiz (id, code, title, active, max_marks, number_of_questions, created_at, " +
+                        "creator_id, teacher_id) VALUES (?, ?, 'Replica copy', true, 10, 1, ?, ?, ?)",
+                replicaQuizId, "R" + replicaQuizId, LocalDateTime.now(), teacher.getId(), teacher.getId());
+        loginAs(teacher);
+
+        assertEquals(List.of("Replica copy"), myQuizTitles());
+        // Repository calls outside a service transaction stay on the primary
+        assertTrue(quizRepository.findById(replicaQuizId).isEmpty());
+
+        quizService.createQuiz(new QuizDTO(null, null, "Primary copy", "d", 10, 1, true, false, false));
+        assertEquals(List.of("Primary copy"), myQuizTitles());
+
+        Thread.sleep(PIN_MS + 100);
+        assertEquals(List.of("Replica copy"), myQuizTitles());
+    }
+
+    @Test
+    void studentReadsTheirResultFromThePrimaryRightAfterSubmitting() throws Exception {
+        User teacher = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Routing");
+        quiz.setMaxMarks(10);
+        quiz.setNumberOfQuestions(1);
+        quiz.setCreator(teacher);
+        quiz.setTeacher(teacher);
+        quiz = quizRepository.save(quiz);
+        Ques question = new Ques();
+        question.setContent("What is 2 + 2?");
+        question.setAnswer("option1");
+        question.setQuiz(quiz);
+        question = questionRepository.save(question);
+
+        loginAs(userRepo.save(User.builder()
+                .username("student-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.STUDENT)
+                .build()));
+        QuizAttemptDTO attempt = quizAttemptService.startQuizAttempt(quiz.getId());
+        quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), Map.of(question.getId(), "option1")));
+
+        QuizResultDTO result = quizAttemptService.getQuizResult(attempt.getId());
+        assertEquals(10, result.getScore());
+        assertEquals(1, quizAttemptService.getMyQuizAttempts().size());
+
+        // Once the pin lapses the (never replicated) replica serves the read
+        Thread.sleep(PIN_MS + 100);
+        assertThrows(ResourceNotFoundException.class, () -> quizAttemptService.getQuizResult(attempt.getId()));
+    }
+
+    @Test
+    void itemAnalysisFromALaggingReplicaIsNotCachedAsCurrent() {
+        User teacher = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Analysis");
+        quiz.setMaxMarks(10);
+        quiz.setNumberOfQuestions(1);
+        quiz.setCreator(teacher);
+        quiz.setTeacher(teacher);
+        quiz = quizRepository.save(quiz);
+        Ques question = new Ques();
+        question.setContent("What is 2 + 2?");
+        question.setAnswer("option1");
+        question.setQuiz(quiz);
+        question = questionRepository.save(question);
+
+        User student = userRepo.save(User.builder()
+                .username("student-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.STUDENT)
+                .build());
+        loginAs(student);
+        QuizAttemptDTO attempt = quizAttemptService.startQuizAttempt(quiz.getId());
+        quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), Map.of(question.getId(), "option1")));
+
+        loginAs(teacher);
+        assertEquals(0, itemAnalysisService.getItemAnalysis(quiz.getId()).getAttempts());
+
+        // The replica catches up; the analysis it served before must not be reused
+        replicate("app_user", "id IN (?, ?)", teacher.getId(), student.getId());
+        replicate("quiz", "id = ?", quiz.getId());
+        replicate("ques", "id = ?", question.getId());
+        replicate("quiz_attempt", "id = ?", attempt.getId());
+        replicate("student_answer", "quiz_attempt_id = ?", attempt.getId());
+        replicate("quiz_statistics", "quiz_id = ?", quiz.getId());
+        assertEquals(1, itemAnalysisService.getItemAnalysis(quiz.getId()).getAttempts());
+    }
+
+    // Copies rows from the primary as they are, leaving out generated columns
+    private void replicate(String table, String where, Object... args) {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        for (Map<String, Object> row : primary.queryForList("SELECT * FROM " + table + " WHERE " + where, args)) {
+            row.remove("IN_PROGRESS");
+            String columns = String.join(", ", row.keySet());
+            String values = String.join(", ", Collections.nCopies(row.size(), "?"));
+            replica.update("INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ")", row.values().toArray());
+        }
+    }
+
+    private List<String> myQuizTitles() {
+        return quizService.getMyQuizzes().stream().map(QuizDTO::getTitle).toList();
+    }
+
+    private static void loginAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
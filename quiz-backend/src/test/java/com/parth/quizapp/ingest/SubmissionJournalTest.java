@@ -0,0 +1,60 @@
+package com.parth.quizapp.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pendingEntriesSurviveReopen() throws Exception {
+        Path file = dir.resolve("journal.dat");
+        int drained;
+        try (SubmissionJournal journal = new SubmissionJournal(file, 4096, true)) {
+            drained = journal.append(1L, 10L, 100L, bytes("{\"quizId\":100}"));
+            journal.append(2L, 20L, 100L, bytes("{\"quizId\":100,\"answers\":{}}"));
+            journal.markDrained(drained);
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(file, 4096, true)) {
+            List<SubmissionJournal.Entry> pending = journal.pendingEntries();
+            assertEquals(1, pending.size());
+            assertEquals(2L, pending.get(0).attemptId());
+            assertEquals(20L, pending.get(0).studentId());
+            assertEquals("{\"quizId\":100,\"answers\":{}}", new String(pending.get(0).payload(), StandardCharsets.UTF_8));
+            assertEquals(1, journal.getPendingCount());
+        }
+    }
+
+    @Test
+    void journalIsRecycledOnceEverythingIsDrained() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(dir.resolve("journal.dat"), 256, false)) {
+            for (int i = 0; i < 20; i++) {
+                int offset = journal.append(i, i, i, bytes("payload-" + i));
+                journal.markDrained(offset);
+            }
+            assertEquals(0, journal.getPendingCount());
+            assertTrue(journal.pendingEntries().isEmpty());
+        }
+    }
+
+    @Test
+    void appendFailsWhenFull() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(dir.resolve("journal.dat"), 64, false)) {
+            journal.append(1L, 1L, 1L, bytes("x"));
+            assertThrows(IllegalStateException.class, () -> journal.append(2L, 2L, 2L, bytes("y")));
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.parth.quizapp.jwt;
+
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.SqlStatementCounter;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "principalMode", "cache");
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cachedPrincipalSkipsTheUserLookupOnRepeatRequests() throws Exception {
+        User user = createUser(Role.STUDENT);
+        String token = jwtService.generateToken(user);
+
+        SqlStatementCounter.reset();
+        User first = authenticate(token);
+        assertEquals(1, SqlStatementCounter.count("select"));
+
+        SqlStatementCounter.reset();
+        User second = authenticate(token);
+        assertEquals(0, SqlStatementCounter.statements().size());
+
+        assertEquals(user.getId(), second.getId());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void roleChangeEvictsTheCachedPrincipal() throws Exception {
+        User user = createUser(Role.STUDENT);
+        String token = jwtService.generateToken(user);
+        assertEquals(Role.STUDENT, authenticate(token).getRole());
+
+        user.setRole(Role.TEACHER);
+        userRepo.save(user);
+
+        assertEquals(Role.TEACHER, authenticate(token).getRole());
+    }
+
+    @Test
+    void principalLoadedBeforeTheRoleChangeCommitsIsEvictedAtCommit() throws Exception {
+        User user = createUser(Role.STUDENT);
+        String token = jwtService.generateToken(user);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            user.setRole(Role.TEACHER);
+            userRepo.saveAndFlush(user);
+            // Another request still reads the committed row and caches the old role
+            CompletableFuture<Role> concurrent = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return authenticate(token).getRole();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertEquals(Role.STUDENT, concurrent.join());
+        });
+
+        assertEquals(Role.TEACHER, authenticate(token).getRole());
+    }
+
+    @Test
+    void claimsModeBuildsThePrincipalWithoutTheDatabase() throws Exception {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "principalMode", "claims");
+        User user = createUser(Role.TEACHER);
+        String token = jwtService.generateToken(user);
+
+        SqlStatementCounter.reset();
+        User principal = authenticate(token);
+
+        assertEquals(0, SqlStatementCounter.statements().size());
+        assertEquals(user.getId(), principal.getId());
+        assertEquals(user.getUsername(), principal.getUsername());
+        assertEquals("ROLE_TEACHER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    private User authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    private User createUser(Role role) {
+        return userRepo.save(User.builder()
+                .username(role.name().toLowerCase() + "-" + UUID.randomUUID())
+                .password("secret")
+                .role(role)
+                .build());
+    }
+}
@@ -0,0 +1,106 @@
+package com.parth.quizapp.jwt;
+
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final User user = User.builder().id(7L).username("alice").role(Role.STUDENT).build();
+
+    @Test
+    void repeatedTokenIsServedFromTheCache() {
+        JwtService jwtService = jwtService(86_400_000, 100);
+        String token = jwtService.generateToken(user);
+
+        JwtService.VerifiedToken first = jwtService.verify(token);
+        JwtService.VerifiedToken second = jwtService.verify(token);
+
+        assertSame(first, second);
+        assertEquals("alice", second.subject());
+        assertEquals(7, second.claims().get("uid", Number.class).intValue());
+        assertEquals(1, jwtService.getCacheMisses());
+        assertEquals(1, jwtService.getCacheHits());
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+        JwtService jwtService = jwtService(86_400_000, 100);
+        String token = jwtService.generateToken(user);
+        jwtService.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertThrows(JwtException.class, () -> jwtService.verify(token + "Ā"));
+    }
+
+    @Test
+    void expiredTokenIsNeverCached() {
+        JwtService jwtService = jwtService(-1000, 100);
+        String token = jwtService.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+        assertEquals(0, jwtService.verifiedCacheSize());
+    }
+
+    @Test
+    void cacheStaysWithinItsBound() {
+        JwtService jwtService = jwtService(86_400_000, 2);
+        for (int i = 0; i < 5; i++) {
+            jwtService.verify(jwtService.generateToken(User.builder()
+                    .id((long) i).username("user" + i).role(Role.STUDENT).build()));
+        }
+        assertEquals(2, jwtService.verifiedCacheSize());
+    }
+
+    @Test
+    void cacheHitAllocatesFarLessThanAFullParse() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        JwtService cached = jwtService(86_400_000, 100);
+        JwtService uncached = jwtService(86_400_000, 0);
+        String token = cached.generateToken(user);
+
+        long perHit = allocatedPerCall(() -> cached.verify(token));
+        long perParse = allocatedPerCall(() -> uncached.verify(token));
+
+        assertTrue(perHit * 20 < perParse, "hit " + perHit + " B vs parse " + perParse + " B per call");
+    }
+
+    private static long allocatedPerCall(Runnable call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 2_000;
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    private static JwtService jwtService(long expiration, int cacheSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", new SimpleMeterRegistry());
+        jwtService.init();
+        return jwtService;
+    }
+}
@@ -0,0 +1,41 @@
+package com.parth.quizapp.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedSkipListTest {
+
+    @Test
+    void ranksAndPositionsMatchASortedSet() {
+        Random random = new Random(42);
+        RankedSkipList<Integer> list = new RankedSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> reference = new TreeSet<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int value = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(value), list.remove(value));
+            } else {
+                assertEquals(reference.add(value), list.add(value));
+            }
+            assertEquals(reference.size(), list.size());
+            assertEquals(reference.headSet(value).size(), list.countBefore(value));
+        }
+
+        List<Integer> sorted = new ArrayList<>(reference);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), list.get(i));
+        }
+        assertEquals(sorted.subList(10, 20), list.range(10, 10));
+        assertEquals(sorted.subList(sorted.size() - 3, sorted.size()), list.range(sorted.size() - 3, 10));
+        assertTrue(list.range(sorted.size(), 5).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(sorted.size()));
+    }
+}
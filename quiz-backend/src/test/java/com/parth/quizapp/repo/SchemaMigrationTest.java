@@ -0,0 +1,132 @@
+package com.parth.quizapp.repo;
+
+import com.parth.quizapp.Model.Quiz;
+import com.parth.quizapp.Model.QuizAttempt;
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private quizRepo quizRepository;
+
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Test
+    void migrationsCreateTheHotPathIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(index_name) FROM information_schema.indexes WHERE LOWER(index_name) LIKE 'idx\\_%' OR LOWER(index_name) LIKE 'uq\\_%'",
+                String.class);
+        assertTrue(indexes.containsAll(List.of("idx_quiz_attempt_student_quiz_completed", "idx_student_answer_attempt",
+                "idx_ques_quiz", "idx_quiz_active", "uq_quiz_attempt_in_progress")), indexes.toString());
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT MAX(CAST(\"version\" AS INT)) FROM \"flyway_schema_history\" WHERE \"success\"", Integer.class));
+    }
+
+    @Test
+    void hotPathQueriesAreIndexLookups() {
+        String attempt = explain("SELECT id FROM quiz_attempt WHERE student_id = 1 AND quiz_id = 2 AND completed = TRUE");
+        assertTrue(attempt.contains("IDX_QUIZ_ATTEMPT_STUDENT_QUIZ_COMPLETED: COMPLETED = TRUE"), attempt);
+        assertTrue(attempt.contains("AND QUIZ_ID = "), attempt);
+        assertTrue(explain("SELECT id FROM quiz WHERE active = TRUE").contains("IDX_QUIZ_ACTIVE: ACTIVE = TRUE"));
+
+        // H2 backs every foreign key with an index of its own and may pick that one instead
+        // (Postgres does not, hence the migration); either way it must not scan the table
+        for (String sql : List.of("SELECT selected_answer FROM student_answer WHERE quiz_attempt_id = 1",
+                "SELECT id, answer, tag FROM ques WHERE quiz_id = 1")) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("TABLESCAN"), plan);
+        }
+    }
+
+    @Test
+    void onlyOneAttemptPerStudentAndQuizMayBeInProgress() {
+        User student = userRepo.save(User.builder()
+                .username("student-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.STUDENT)
+                .build());
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Constraint");
+        quiz.setMaxMarks(10);
+        quiz.setNumberOfQuestions(1);
+        quiz = quizRepository.save(quiz);
+
+        QuizAttempt first = quizAttemptRepository.saveAndFlush(attempt(student, quiz, false));
+        Quiz sameQuiz = quiz;
+        assertThrows(DataIntegrityViolationException.class,
+                () -> quizAttemptRepository.saveAndFlush(attempt(student, sameQuiz, false)));
+
+        // Completed attempts are not constrained, and completing frees the slot
+        first.setCompleted(true);
+        quizAttemptRepository.saveAndFlush(first);
+        quizAttemptRepository.saveAndFlush(attempt(student, quiz, true));
+        quizAttemptRepository.saveAndFlush(attempt(student, quiz, false));
+        assertEquals(3, quizAttemptRepository.findAll().stream()
+                .filter(a -> a.getQuiz().getId().equals(sameQuiz.getId())).count());
+    }
+
+    @Test
+    void duplicateAttemptsInProgressAreDeletedBeforeTheConstraint() {
+        // A database of its own, migrated up to just before the constraint and seeded with duplicates
+        String url = "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+        JdbcTemplate database = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        migrate(url, "4");
+        database.update("INSERT INTO app_user (id, password, role, username) VALUES (1, 'x', 'STUDENT', 'a'), (2, 'x', 'STUDENT', 'b')");
+        database.update("INSERT INTO quiz (id, active, max_marks, number_of_questions, code) VALUES (1, TRUE, 10, 1, 'C1')");
+        database.update("INSERT INTO quiz_attempt (id, student_id, quiz_id, completed, correct_answers, score, total_marks, total_questions) VALUES "
+                + "(1, 1, 1, TRUE, 1, 10, 10, 1), (2, 1, 1, FALSE, 0, 0, 10, 1), (3, 1, 1, FALSE, 0, 0, 10, 1), "
+                + "(4, 1, 1, FALSE, 0, 0, 10, 1), (5, 2, 1, FALSE, 0, 0, 10, 1)");
+        database.update("INSERT INTO ques (id, quiz_id, content, answer) VALUES (1, 1, 'Q', 'option1')");
+        database.update("INSERT INTO student_answer (id, is_correct, question_id, quiz_attempt_id) VALUES (1, FALSE, 1, 3)");
+
+        migrate(url, null);
+        assertEquals(List.of(1L, 2L, 5L), database.queryForList("SELECT id FROM quiz_attempt ORDER BY id", Long.class));
+        assertEquals(0, database.queryForObject("SELECT COUNT(*) FROM student_answer", Integer.class));
+        assertEquals(1, database.queryForObject("SELECT COUNT(*) FROM quiz_attempt WHERE completed", Integer.class));
+    }
+
+    private static void migrate(String url, String target) {
+        var configuration = Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+
+    private static QuizAttempt attempt(User student, Quiz quiz, boolean completed) {
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setStudent(student);
+        attempt.setQuiz(quiz);
+        attempt.setCompleted(completed);
+        attempt.setStartTime(LocalDateTime.now());
+        return attempt;
+    }
+}
@@ -0,0 +1,148 @@
+package com.parth.quizapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionIndexTest {
+
+    private static List<Long> ids(List<QuestionIndex.Hit> hits) {
+        return hits.stream().map(QuestionIndex.Hit::questionId).toList();
+    }
+
+    @Test
+    void ranksRarerAndDenserMatchesFirst() {
+        QuestionIndex index = new QuestionIndex();
+        index.put(1, 10, "What is the capital of France? Paris London Berlin Rome");
+        index.put(2, 10, "Which river flows through Paris? Seine Thames Danube Rhine");
+        index.put(3, 11, "What is the boiling point of water at sea level?");
+        index.put(4, 11, "Paris Paris Paris: which city hosted the 1900 and 1924 Olympics?");
+
+        List<QuestionIndex.Hit> hits = index.search("paris capital ", 10);
+        assertEquals(List.of(1L, 4L, 2L), ids(hits));
+        assertEquals(10L, hits.get(0).quizId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+
+        assertEquals(List.of(3L), ids(index.search("boiling water", 10)));
+        assertEquals(List.of(4L), ids(index.search("paris", 1)));
+        assertTrue(index.search("nothing matches ", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void lastWordMatchesAsPrefixUntilFollowedBySpace() {
+        QuestionIndex index = new QuestionIndex();
+        index.put(1, 1, "Photosynthesis happens in the chloroplast");
+        index.put(2, 1, "Photography uses light-sensitive film");
+        index.put(3, 1, "A photon is a quantum of light");
+
+        assertEquals(3, index.search("phot", 10).size());
+        assertEquals(List.of(2L, 3L), ids(index.search("light photog", 10)));
+        assertTrue(index.search("phot ", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("photon ", 10)));
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceOldText() {
+        QuestionIndex index = new QuestionIndex();
+        index.put(1, 1, "Mitochondria are the powerhouse of the cell");
+        index.put(2, 2, "Ribosomes synthesise proteins");
+        index.put(3, 2, "The nucleus stores genetic material");
+
+        index.put(1, 1, "Chlorophyll absorbs red and blue light");
+        assertTrue(index.search("mitochondria ", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("chlorophyll ", 10)));
+        assertEquals(3, index.size());
+
+        index.remove(3);
+        index.remove(99);
+        assertTrue(index.search("nucleus ", 10).isEmpty());
+        assertEquals(2, index.size());
+
+        index.removeQuiz(2);
+        assertTrue(index.search("ribosomes ", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactionKeepsResultsStable() {
+        Random random = new Random(7);
+        String[] vocabulary = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "theta", "kappa"};
+        QuestionIndex index = new QuestionIndex();
+        Map<Long, String> reference = new HashMap<>();
+
+        for (int step = 0; step < 6000; step++) {
+            long id = random.nextInt(1500);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                reference.remove(id);
+            } else {
+                StringBuilder text = new StringBuilder("q" + id);
+                for (int i = 0; i < 1 + random.nextInt(10); i++) {
+                    text.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                index.put(id, id % 7, text.toString());
+                reference.put(id, text.toString());
+            }
+        }
+
+        assertEquals(reference.size(), index.size());
+        for (String word : vocabulary) {
+            long expected = reference.values().stream().filter(t -> t.contains(word)).count();
+            assertEquals(expected, index.search(word + " ", Integer.MAX_VALUE).size(), word);
+        }
+        for (Map.Entry<Long, String> entry : reference.entrySet()) {
+            assertEquals(List.of(entry.getKey()), ids(index.search("q" + entry.getKey() + " ", 10)));
+        }
+    }
+
+    @Test
+    void compactionRenumbersSlotsSoRepeatedEditsDoNotGrowTheIndex() {
+        QuestionIndex index = new QuestionIndex();
+        for (int round = 0; round < 100; round++) {
+            for (long id = 0; id < 100; id++) {
+                index.put(id, id % 3, "q" + id + " round" + round);
+            }
+        }
+
+        assertEquals(100, index.size());
+        // At most one compaction threshold (1000 retired slots) beyond the live documents
+        assertTrue(index.slotCount() <= 100 + 1001, "slots: " + index.slotCount());
+        assertEquals(List.of(42L), ids(index.search("q42 round99 ", 1)));
+        assertEquals(100, index.search("round99 ", Integer.MAX_VALUE).size());
+        assertTrue(index.search("round98 ", 10).isEmpty());
+
+        index.removeQuiz(0);
+        assertEquals(66, index.size());
+        assertTrue(index.search("q42 ", 10).isEmpty());
+        assertEquals(List.of(43L), ids(index.search("q43 ", 10)));
+    }
+
+    @Test
+    void longIntHashMapSurvivesBackwardShiftDeletes() {
+        Random random = new Random(3);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> reference = new HashMap<>();
+
+        for (int step = 0; step < 20000; step++) {
+            long key = random.nextInt(3000) * 1024L;
+            if (random.nextBoolean()) {
+                assertEquals(reference.getOrDefault(key, -1), map.remove(key));
+                reference.remove(key);
+            } else {
+                map.put(key, step);
+                reference.put(key, step);
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(-1, map.get(-5));
+    }
+}
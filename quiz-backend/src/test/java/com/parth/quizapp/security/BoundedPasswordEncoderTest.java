@@ -0,0 +1,73 @@
+package com.parth.quizapp.security;
+
+import com.parth.quizapp.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void rejectsWithRetryAfterWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 4, 1, 1, new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One verification running, one queued: the third caller is turned away
+            callers.submit(() -> encoder.matches("a", "a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> encoder.matches("b", "b"));
+            while (encoder.getQueueDepth() == 0) {
+                Thread.onSpinWait();
+            }
+
+            TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                    () -> encoder.matches("c", "c"));
+            assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void hashesWithAnotherCostNeedUpgrading() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, 1, 1,
+                new SimpleMeterRegistry());
+        try {
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+            assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(6).encode("secret")));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.cache.AnswerKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttemptShuffleTest {
+
+    // 60 "easy", 30 "hard" and 10 untagged questions, interleaved by id
+    private static AnswerKey pool() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String tag = i % 10 == 9 ? null : i % 3 == 0 ? "hard" : "easy";
+            rows.add(new Object[]{1000L + i, "option1", tag});
+        }
+        return AnswerKey.compile(rows);
+    }
+
+    @Test
+    void drawIsReproducibleAndStratifiedByTag() {
+        AnswerKey pool = pool();
+        int[] drawn = AttemptShuffle.draw(42, pool, 10);
+
+        assertArrayEquals(drawn, AttemptShuffle.draw(42, pool, 10));
+        assertFalse(Arrays.equals(drawn, AttemptShuffle.draw(43, pool, 10)));
+        assertEquals(10, Arrays.stream(drawn).distinct().count());
+        assertArrayEquals(Arrays.stream(drawn).sorted().toArray(), drawn);
+
+        int untagged = 0;
+        int hard = 0;
+        for (int position : drawn) {
+            if (position % 10 == 9) {
+                untagged++;
+            } else if (position % 3 == 0) {
+                hard++;
+            }
+        }
+        assertEquals(1, untagged);
+        assertEquals(3, hard);
+
+        assertEquals(100, AttemptShuffle.draw(42, pool, 100).length);
+        assertEquals(100, AttemptShuffle.draw(42, pool, 500).length);
+    }
+
+    @Test
+    void everyQuestionIsDrawnAboutEquallyOften() {
+        AnswerKey pool = pool();
+        int[] counts = new int[pool.size()];
+        int attempts = 20000;
+        for (long attemptId = 1; attemptId <= attempts; attemptId++) {
+            for (int position : AttemptShuffle.draw(attemptId, pool, 10)) {
+                counts[position]++;
+            }
+        }
+        // Each question is drawn with probability 1/10; allow a generous 5 standard deviations
+        for (int count : counts) {
+            assertEquals(attempts / 10.0, count, 5 * Math.sqrt(attempts * 0.1 * 0.9));
+        }
+    }
+
+    @Test
+    void displayedOptionsMapBackToStoredOnes() {
+        for (long questionId = 1; questionId <= 50; questionId++) {
+            int[] order = AttemptShuffle.optionOrder(7, questionId);
+            assertEquals(List.of(0, 1, 2, 3), Arrays.stream(order).sorted().boxed().toList());
+            for (int slot = 0; slot < 4; slot++) {
+                assertEquals("option" + (order[slot] + 1), AttemptShuffle.toStored(7, questionId, "option" + (slot + 1)));
+            }
+        }
+        assertEquals("Paris", AttemptShuffle.toStored(7, 1, "Paris"));
+        assertNull(AttemptShuffle.toStored(7, 1, null));
+    }
+}
@@ -0,0 +1,43 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.dto.AuthenticationRequest;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AuthenticationServiceTest {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void loginRehashesPasswordsMadeWithAnotherCost() {
+        String username = "student-" + UUID.randomUUID();
+        userRepo.save(User.builder()
+                .username(username)
+                .password(new BCryptPasswordEncoder(5).encode("secret"))
+                .role(Role.STUDENT)
+                .build());
+
+        assertNotNull(authenticationService.authenticate(new AuthenticationRequest(username, "secret")).getToken());
+
+        String rehashed = userRepo.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(rehashed.startsWith("$2a$04$"), rehashed);
+        assertNotNull(authenticationService.authenticate(new AuthenticationRequest(username, "secret")).getToken());
+        assertThrows(BadCredentialsException.class,
+                () -> authenticationService.authenticate(new AuthenticationRequest(username, "wrong")));
+    }
+}
@@ -0,0 +1,619 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.*;
+import com.parth.quizapp.SqlStatementCounter;
+import com.parth.quizapp.cache.AnswerKey;
+import com.parth.quizapp.cache.AnswerKeyCache;
+import com.parth.quizapp.dto.CursorPageDTO;
+import com.parth.quizapp.dto.ItemAnalysisDTO;
+import com.parth.quizapp.dto.LeaderboardEntryDTO;
+import com.parth.quizapp.dto.PageQuery;
+import com.parth.quizapp.dto.QuestionAnalysisDTO;
+import com.parth.quizapp.dto.QuestionDTO;
+import com.parth.quizapp.dto.QuestionResultDTO;
+import com.parth.quizapp.dto.QuizAttemptDTO;
+import com.parth.quizapp.dto.QuizDTO;
+import com.parth.quizapp.dto.QuizResultDTO;
+import com.parth.quizapp.dto.QuizStatisticsDTO;
+import com.parth.quizapp.dto.QuizSubmissionDTO;
+import com.parth.quizapp.dto.SubmissionStatusDTO;
+import com.parth.quizapp.ingest.SubmissionStatus;
+import com.parth.quizapp.repo.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class QuizAttemptServiceTest {
+
+    @Autowired
+    private QuizAttemptService quizAttemptService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private quizRepo quizRepository;
+
+    @Autowired
+    private quesRepo questionRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private SubmissionIngestService submissionIngestService;
+
+    @Autowired
+    private DraftAnswerService draftAnswerService;
+
+    @Autowired
+    private QuizAttemptRepo quizAttemptRepository;
+
+    @Autowired
+    private ResultExportService resultExportService;
+
+    @Autowired
+    private QuizStatisticsService quizStatisticsService;
+
+    @Autowired
+    private QuizStatisticsRepo quizStatisticsRepository;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void submitQuizGradesAndPersistsEveryAnswer() {
+        Quiz quiz = createQuiz(4);
+        User student = loginAs(Role.STUDENT);
+        quizAttemptService.startQuizAttempt(quiz.getId());
+
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+        answers.put(questionRepository.findByQuiz(quiz).get(0).getId(), "option2");
+
+        QuizResultDTO result = quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers));
+
+        assertEquals(3, result.getCorrectAnswers());
+        assertEquals(30, result.getScore());
+        assertEquals(4, result.getQuestionResults().size());
+        assertEquals(student.getUsername(), result.getStudentName());
+    }
+
+    @Test
+    void submitQuizStatementCountDoesNotGrowWithQuestionCount() {
+        long small = countSubmitStatements(5);
+        long large = countSubmitStatements(40);
+
+        assertEquals(small, large, "grading must write answers in one batch, not one INSERT per question");
+        assertEquals(1, SqlStatementCounter.count("insert into student_answer"));
+    }
+
+    @Test
+    void answerKeysChangedElsewhereAreReloadedOnceTheTtlExpires() {
+        Quiz quiz = createQuiz(3);
+        AnswerKey cached = answerKeyCache.get(quiz.getId());
+        assertTrue(cached.isCorrect(0, "option1"));
+
+        // As if edited on another node: the row changes but this node is not told
+        Ques question = questionRepository.findById(cached.questionId(0)).orElseThrow();
+        question.setAnswer("option2");
+        questionRepository.save(question);
+        assertSame(cached, answerKeyCache.get(quiz.getId()));
+
+        ReflectionTestUtils.setField(answerKeyCache, "ttlMs", 0L);
+        try {
+            assertTrue(answerKeyCache.get(quiz.getId()).isCorrect(0, "option2"));
+        } finally {
+            ReflectionTestUtils.setField(answerKeyCache, "ttlMs", 30000L);
+        }
+    }
+
+    @Test
+    void submitQuizDoesNotSelectQuestionsWhenAnswerKeyIsCached() {
+        Quiz quiz = createQuiz(6);
+        loginAs(Role.STUDENT);
+        quizAttemptService.startQuizAttempt(quiz.getId());
+        answerKeyCache.get(quiz.getId());
+
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+
+        long hits = answerKeyCache.getHits();
+        SqlStatementCounter.reset();
+        quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers));
+
+        assertEquals(hits + 1, answerKeyCache.getHits());
+        assertEquals(0, SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.toLowerCase().contains("answer from ques"))
+                .count());
+    }
+
+    @Test
+    void acceptedSubmissionIsGradedInTheBackground() throws Exception {
+        Quiz quiz = createQuiz(3);
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+        QuizSubmissionDTO submission = new QuizSubmissionDTO(quiz.getId(), answers, attemptId);
+
+        SubmissionStatusDTO accepted = submissionIngestService.accept(submission);
+        assertEquals(attemptId, accepted.getAttemptId());
+
+        SubmissionStatusDTO status = accepted;
+        for (int i = 0; i < 100 && status.getStatus() != SubmissionStatus.COMPLETED; i++) {
+            Thread.sleep(50);
+            status = submissionIngestService.getStatus(attemptId);
+        }
+        assertEquals(SubmissionStatus.COMPLETED, status.getStatus());
+        assertEquals(30, quizAttemptService.getQuizResult(attemptId).getScore());
+    }
+
+    @Test
+    void acceptedSubmissionForSomeoneElsesAttemptFailsWhenGraded() throws Exception {
+        Quiz quiz = createQuiz(3);
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+
+        // The attempt id is taken on trust when accepting, and checked by the worker
+        loginAs(Role.STUDENT);
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+        SubmissionStatusDTO status = submissionIngestService.accept(new QuizSubmissionDTO(quiz.getId(), answers, attemptId));
+        for (int i = 0; i < 100 && status.getStatus() == SubmissionStatus.ACCEPTED; i++) {
+            Thread.sleep(50);
+            status = submissionIngestService.getStatus(attemptId);
+        }
+        assertEquals(SubmissionStatus.FAILED, status.getStatus());
+        assertFalse(quizAttemptRepository.findById(attemptId).orElseThrow().isCompleted());
+    }
+
+    @Test
+    void autosavedDraftsAreFlushedInOneBatchAndMergedOnSubmit() {
+        Quiz quiz = createQuiz(3);
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        List<Ques> questions = questionRepository.findByQuiz(quiz);
+
+        quizAttemptService.saveDraftAnswers(attemptId, Map.of(questions.get(0).getId(), "option2"));
+        quizAttemptService.saveDraftAnswers(attemptId, Map.of(questions.get(0).getId(), "option1"));
+        quizAttemptService.saveDraftAnswers(attemptId, Map.of(questions.get(1).getId(), "option1"));
+
+        long flushes = meterRegistry.timer("quiz.autosave.flush").count();
+        draftAnswerService.flush();
+        assertEquals(flushes + 1, meterRegistry.timer("quiz.autosave.flush").count());
+        assertTrue(quizAttemptRepository.findById(attemptId).orElseThrow().getDraftAnswers()
+                .contains("\"" + questions.get(1).getId() + "\":\"option1\""));
+
+        QuizResultDTO result = quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(),
+                Map.of(questions.get(2).getId(), "option1")));
+
+        assertEquals(3, result.getCorrectAnswers());
+        assertNull(quizAttemptRepository.findById(attemptId).orElseThrow().getDraftAnswers());
+    }
+
+    @Test
+    void autosaveRejectsAnswersOutsideTheQuizOrOptions() {
+        Quiz quiz = createQuiz(2);
+        Quiz other = createQuiz(1);
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        Long questionId = questionRepository.findByQuiz(quiz).get(0).getId();
+        Long foreignId = questionRepository.findByQuiz(other).get(0).getId();
+
+        assertThrows(RuntimeException.class, () -> quizAttemptService.saveDraftAnswers(attemptId, Map.of(foreignId, "option1")));
+        assertThrows(RuntimeException.class, () -> quizAttemptService.saveDraftAnswers(attemptId, Map.of(questionId, "option5")));
+        assertThrows(RuntimeException.class, () -> quizAttemptService.saveDraftAnswers(attemptId, Map.of(questionId, "x".repeat(70000))));
+        quizAttemptService.saveDraftAnswers(attemptId, Map.of(questionId, "option4"));
+
+        draftAnswerService.flush();
+        assertEquals("{\"" + questionId + "\":\"option4\"}", quizAttemptRepository.findById(attemptId).orElseThrow().getDraftAnswers());
+    }
+
+    @Test
+    void resultRenderingQueryCountDoesNotGrowWithQuestionCount() {
+        Long small = submitAttempt(createQuiz(3));
+        Long large = submitAttempt(createQuiz(30));
+        loginAs(Role.ADMIN);
+
+        long smallStatements = countStatements(() -> quizAttemptService.getQuizResult(small));
+        long largeStatements = countStatements(() -> quizAttemptService.getQuizResult(large));
+
+        assertEquals(smallStatements, largeStatements);
+        assertTrue(largeStatements <= 2, "result rendering ran " + largeStatements + " statements");
+        assertEquals(30, quizAttemptService.getQuizResult(large).getQuestionResults().size());
+    }
+
+    @Test
+    void attemptListingQueryCountDoesNotGrowWithAttemptCount() {
+        Quiz quiz = createQuiz(5);
+        submitAttempt(quiz);
+        loginAs(quiz.getCreator());
+        long oneAttempt = countStatements(() -> quizAttemptService.getQuizAttempts(quiz.getId()));
+
+        for (int i = 0; i < 4; i++) {
+            submitAttempt(quiz);
+        }
+        loginAs(quiz.getCreator());
+        long fiveAttempts = countStatements(() -> quizAttemptService.getQuizAttempts(quiz.getId()));
+
+        assertEquals(oneAttempt, fiveAttempts);
+        assertEquals(5, quizAttemptService.getQuizAttempts(quiz.getId()).size());
+        assertEquals(5, quizAttemptService.getQuizResultsForMyQuizzes().size());
+    }
+
+    @Test
+    void attemptPagesFollowTheCursorWithoutGapsOrDuplicates() {
+        Quiz quiz = createQuiz(2);
+        Set<Long> submitted = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            submitted.add(submitAttempt(quiz));
+        }
+        loginAs(Role.STUDENT);
+        quizAttemptService.startQuizAttempt(quiz.getId());
+        loginAs(quiz.getCreator());
+
+        List<Long> seen = new ArrayList<>();
+        PageQuery pageQuery = new PageQuery();
+        pageQuery.setSize(2);
+        pageQuery.setCompleted(true);
+        int pages = 0;
+        do {
+            CursorPageDTO<QuizAttemptDTO> page = quizAttemptService.getQuizAttemptsPage(quiz.getId(), pageQuery);
+            page.getItems().forEach(a -> seen.add(a.getId()));
+            pageQuery.setCursor(page.getNextCursor());
+            pages++;
+        } while (pageQuery.getCursor() != null);
+
+        assertEquals(3, pages);
+        assertEquals(submitted, new HashSet<>(seen));
+        assertEquals(5, seen.size());
+
+        PageQuery inProgress = new PageQuery();
+        inProgress.setCompleted(false);
+        assertEquals(1, quizAttemptService.getQuizAttemptsPage(quiz.getId(), inProgress).getItems().size());
+    }
+
+    @Test
+    void exportStreamsOneLinePerCompletedAttempt() throws Exception {
+        Quiz quiz = createQuiz(3);
+        Long first = submitAttempt(quiz);
+        String formula = "=HYPERLINK(\"x\")-" + UUID.randomUUID();
+        loginAs(userRepo.save(User.builder().username(formula).password("secret").role(Role.STUDENT).build()));
+        quizAttemptService.startQuizAttempt(quiz.getId());
+        quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), Map.of()));
+        loginAs(Role.STUDENT);
+        quizAttemptService.startQuizAttempt(quiz.getId());
+        loginAs(quiz.getCreator());
+        resultExportService.checkCanExport(quiz.getId());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        resultExportService.export(quiz.getId(), ResultExportService.Format.CSV, true, csv);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals(12, lines[0].split(",").length);
+        assertTrue(lines[1].startsWith(first + ","));
+        assertTrue(lines[1].contains(",100.00,"), lines[1]);
+        assertTrue(lines[1].endsWith(",option1,option1,option1"));
+        // Cells a spreadsheet would evaluate are prefixed with a quote
+        assertTrue(lines[2].contains(",\"'" + formula.replace("\"", "\"\"") + "\","), lines[2]);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        resultExportService.export(quiz.getId(), ResultExportService.Format.NDJSON, false, ndjson);
+        lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"attemptId\":" + first + ","));
+        assertTrue(lines[1].startsWith("{\"attemptId\":"), lines[1]);
+        assertTrue(lines[1].contains(formula.replace("\"", "\\\"")), lines[1]);
+        assertFalse(lines[0].contains("answers"));
+    }
+
+    @Test
+    void inactiveQuizLeaderboardsAreRankedFromTheDatabaseWithoutBeingKept() {
+        Quiz quiz = createQuiz(2);
+        Long attemptId = submitAttempt(quiz);
+        Long late = submitAttempt(quiz);
+        quiz.setActive(false);
+        quizRepository.save(quiz);
+        leaderboardService.evict(quiz.getId());
+
+        int cached = leaderboardService.cachedBoards();
+        loginAs(quiz.getCreator());
+        assertEquals(2, quizAttemptService.getLeaderboard(quiz.getId(), 10).size());
+        assertEquals(1, quizAttemptService.getAttemptRank(attemptId).getRank());
+        assertEquals(2, quizAttemptService.getAttemptRank(late).getRank());
+        assertEquals(cached, leaderboardService.cachedBoards());
+    }
+
+    @Test
+    void statisticsAreMaintainedOnSubmitAndMatchARebuild() {
+        Quiz quiz = createQuiz(4);
+        submitStaircase(quiz);
+        loginAs(quiz.getCreator());
+
+        QuizStatisticsDTO stats = quizAttemptService.getQuizStatistics(quiz.getId());
+        assertEquals(4, stats.getAttemptCount());
+        assertEquals(25.0, stats.getAverageScore(), 1e-9);
+        assertEquals(Math.sqrt(125), stats.getStandardDeviation(), 1e-9);
+        assertEquals(10, stats.getMinScore());
+        assertEquals(40, stats.getMaxScore());
+        assertEquals(0.75, stats.getPassRate(), 1e-9);
+        assertArrayEquals(new int[]{0, 0, 1, 0, 0, 1, 0, 1, 0, 1}, stats.getHistogram());
+
+        // The row holds the histogram as soon as the attempts commit; only the sketch waits for the flush
+        assertArrayEquals(stats.getHistogram(), quizStatisticsRepository.findById(quiz.getId()).orElseThrow().getHistogram());
+        quizStatisticsService.flush();
+        assertEquals(stats, quizAttemptService.getQuizStatistics(quiz.getId()));
+
+        QuizStatisticsDTO rebuilt = quizStatisticsService.rebuild(quiz.getId());
+        assertEquals(stats, rebuilt);
+    }
+
+    @Test
+    void itemAnalysisIsComputedInChunksAndCachedUntilTheNextSubmission() {
+        Quiz quiz = createQuiz(4);
+        submitStaircase(quiz);
+        loginAs(quiz.getCreator());
+
+        ItemAnalysisDTO analysis = itemAnalysisService.getItemAnalysis(quiz.getId());
+        assertEquals(4, analysis.getAttempts());
+
+        QuestionAnalysisDTO easiest = analysis.getQuestions().get(0);
+        assertEquals(1.0, easiest.getDifficulty(), 1e-9);
+        assertNull(easiest.getDiscrimination());
+
+        QuestionAnalysisDTO second = analysis.getQuestions().get(1);
+        assertEquals(0.75, second.getDifficulty(), 1e-9);
+        assertEquals(2 * Math.sqrt(0.15), second.getDiscrimination(), 1e-9);
+        assertArrayEquals(new long[]{3, 1, 0, 0}, second.getOptionCounts());
+        assertEquals("option1", second.getCorrectAnswer());
+
+        assertSame(analysis, itemAnalysisService.getItemAnalysis(quiz.getId()));
+
+        submitAttempt(quiz);
+        loginAs(quiz.getCreator());
+        assertEquals(5, itemAnalysisService.getItemAnalysis(quiz.getId()).getAttempts());
+    }
+
+    @Test
+    void leaderboardRanksAttemptsAsTheyAreSubmitted() {
+        Quiz quiz = createQuiz(4);
+        List<QuizResultDTO> results = submitStaircase(quiz);
+
+        // Every attempt beats the ones before it, so each is first when submitted
+        results.forEach(result -> assertEquals(1, result.getRank()));
+
+        loginAs(quiz.getCreator());
+        List<LeaderboardEntryDTO> top = quizAttemptService.getLeaderboard(quiz.getId(), 3);
+        assertEquals(List.of(40, 30, 20), top.stream().map(LeaderboardEntryDTO::getScore).toList());
+        assertEquals(List.of(1, 2, 3), top.stream().map(LeaderboardEntryDTO::getRank).toList());
+        assertEquals(4, top.get(0).getParticipants());
+
+        LeaderboardEntryDTO lowest = quizAttemptService.getAttemptRank(results.get(0).getAttemptId());
+        assertEquals(4, lowest.getRank());
+        assertEquals(4, quizAttemptService.getQuizResult(results.get(0).getAttemptId()).getRank());
+
+        // Percentiles come from the quiz's score sketch, exact at this size
+        QuizResultDTO lowestResult = quizAttemptService.getQuizResult(results.get(0).getAttemptId());
+        assertEquals(12.5, lowestResult.getPercentile(), 1e-9);
+        assertEquals(20.0, lowestResult.getClassMedian());
+        assertEquals(40.0, lowestResult.getClassP90());
+        assertEquals(50.0, results.get(0).getPercentile(), 1e-9);
+        assertEquals(87.5, quizAttemptService.getQuizAttempts(quiz.getId()).stream()
+                .filter(a -> a.getScore() == 40).findFirst().orElseThrow().getPercentile(), 1e-9);
+
+        // Ties go to whoever finished first
+        Long tied = submitAttempt(quiz);
+        loginAs(quiz.getCreator());
+        assertEquals(2, quizAttemptService.getAttemptRank(tied).getRank());
+    }
+
+    @Test
+    void shuffledQuizGivesEachAttemptItsOwnOrderAndGradesInDisplayedTerms() {
+        Quiz quiz = createQuiz(12);
+        quiz.setShuffleQuestions(true);
+        quizRepository.save(quiz);
+
+        loginAs(Role.STUDENT);
+        Long other = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        List<QuestionDTO> otherOrder = questionService.getAttemptQuestions(other);
+
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        List<QuestionDTO> questions = questionService.getAttemptQuestions(attemptId);
+        assertEquals(questions, questionService.getAttemptQuestions(attemptId));
+        assertNotEquals(otherOrder.stream().map(QuestionDTO::getId).toList(),
+                questions.stream().map(QuestionDTO::getId).toList());
+        assertThrows(RuntimeException.class, () -> questionService.getQuestionsPayload(quiz.getId()));
+        assertThrows(RuntimeException.class, () -> questionService.getAttemptQuestions(other));
+
+        // "A" is the stored correct option; answer by the slot it is displayed in, half via autosave
+        Map<Long, String> answers = new HashMap<>();
+        for (QuestionDTO question : questions) {
+            assertNull(question.getAnswer());
+            List<String> options = List.of(question.getOption1(), question.getOption2(),
+                    question.getOption3(), question.getOption4());
+            assertEquals(Set.of("A", "B", "C", "D"), new HashSet<>(options));
+            answers.put(question.getId(), "option" + (options.indexOf("A") + 1));
+        }
+        Long firstId = questions.get(0).getId();
+        quizAttemptService.saveDraftAnswers(attemptId, Map.of(firstId, answers.remove(firstId)));
+
+        QuizResultDTO result = quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers));
+        assertEquals(12, result.getCorrectAnswers());
+        assertTrue(result.getQuestionResults().stream().map(QuestionResultDTO::getSelectedAnswer)
+                .allMatch("option1"::equals));
+    }
+
+    @Test
+    void pooledQuizDrawsAndGradesOnlyTheSampledQuestions() {
+        Quiz quiz = createQuiz(20);
+        quiz.setNumberOfQuestions(5);
+        quiz.setMaxMarks(50);
+        quiz.setQuestionPool(true);
+        quizRepository.save(quiz);
+
+        User student = loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        List<QuestionDTO> drawn = questionService.getAttemptQuestions(attemptId);
+        assertEquals(5, drawn.size());
+        assertEquals(drawn, questionService.getAttemptQuestions(attemptId));
+
+        // The pool and draw size stay as they were while the attempt is in progress
+        loginAs(quiz.getCreator());
+        QuestionDTO extra = new QuestionDTO(null, "Extra", null, "A", "B", "C", "D", "option1", quiz.getId(), null);
+        assertThrows(RuntimeException.class, () -> questionService.addQuestion(quiz.getId(), extra));
+        assertThrows(RuntimeException.class, () -> questionService.deleteQuestion(drawn.get(0).getId()));
+        QuizDTO moreQuestions = new QuizDTO(quiz.getId(), quiz.getCode(), quiz.getTitle(), null, 50, 6, true, false, true);
+        assertThrows(RuntimeException.class, () -> quizService.updateQuiz(quiz.getId(), moreQuestions));
+        loginAs(student);
+
+        Map<Long, String> answers = new HashMap<>();
+        drawn.forEach(q -> answers.put(q.getId(), "option1"));
+        QuizResultDTO result = quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers));
+        assertEquals(5, result.getCorrectAnswers());
+        assertEquals(50, result.getScore());
+        assertEquals(answers.keySet(), result.getQuestionResults().stream()
+                .map(QuestionResultDTO::getQuestionId).collect(Collectors.toSet()));
+    }
+
+    // Four attempts answering the first 1, 2, 3 and 4 questions correctly
+    private List<QuizResultDTO> submitStaircase(Quiz quiz) {
+        List<Ques> questions = questionRepository.findByQuiz(quiz);
+        List<QuizResultDTO> results = new ArrayList<>();
+        for (int correct = 1; correct <= questions.size(); correct++) {
+            loginAs(Role.STUDENT);
+            quizAttemptService.startQuizAttempt(quiz.getId());
+            Map<Long, String> answers = new HashMap<>();
+            for (int i = 0; i < questions.size(); i++) {
+                answers.put(questions.get(i).getId(), i < correct ? "option1" : "option2");
+            }
+            results.add(quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers)));
+        }
+        return results;
+    }
+
+    private Long submitAttempt(Quiz quiz) {
+        loginAs(Role.STUDENT);
+        Long attemptId = quizAttemptService.startQuizAttempt(quiz.getId()).getId();
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+        quizAttemptService.submitQuiz(new QuizSubmissionDTO(quiz.getId(), answers));
+        return attemptId;
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countSubmitStatements(int numberOfQuestions) {
+        Quiz quiz = createQuiz(numberOfQuestions);
+        loginAs(Role.STUDENT);
+        quizAttemptService.startQuizAttempt(quiz.getId());
+
+        Map<Long, String> answers = new HashMap<>();
+        questionRepository.findByQuiz(quiz).forEach(q -> answers.put(q.getId(), "option1"));
+        QuizSubmissionDTO submission = new QuizSubmissionDTO(quiz.getId(), answers);
+
+        statistics.clear();
+        SqlStatementCounter.reset();
+        quizAttemptService.submitQuiz(submission);
+
+        assertEquals(numberOfQuestions, statistics.getEntityInsertCount());
+        return SqlStatementCounter.statements().size();
+    }
+
+    private User loginAs(Role role) {
+        User user = userRepo.save(User.builder()
+                .username(role.name().toLowerCase() + "-" + UUID.randomUUID())
+                .password("secret")
+                .role(role)
+                .build());
+        return loginAs(user);
+    }
+
+    private User loginAs(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        return user;
+    }
+
+    private Quiz createQuiz(int numberOfQuestions) {
+        User teacher = userRepo.save(User.builder()
+                .username("teacher-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.TEACHER)
+                .build());
+
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Quiz " + numberOfQuestions);
+        quiz.setMaxMarks(numberOfQuestions * 10);
+        quiz.setNumberOfQuestions(numberOfQuestions);
+        quiz.setCreator(teacher);
+        quiz.setTeacher(teacher);
+        quiz = quizRepository.save(quiz);
+
+        for (int i = 0; i < numberOfQuestions; i++) {
+            Ques question = new Ques();
+            question.setContent("Question " + i);
+            question.setOption1("A");
+            question.setOption2("B");
+            question.setOption3("C");
+            question.setOption4("D");
+            question.setAnswer("option1");
+            question.setQuiz(quiz);
+            questionRepository.save(question);
+        }
+        return quiz;
+    }
+}
@@ -0,0 +1,91 @@
+package com.parth.quizapp.service;
+
+import com.parth.quizapp.Model.Role;
+import com.parth.quizapp.Model.User;
+import com.parth.quizapp.dto.RosterImportResultDTO;
+import com.parth.quizapp.dto.RosterRowResultDTO;
+import com.parth.quizapp.dto.RosterRowResultDTO.Status;
+import com.parth.quizapp.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RosterImportServiceTest {
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        // Several chunks even for a handful of rows
+        ReflectionTestUtils.setField(rosterImportService, "batchSize", 2);
+        prefix = "roster-" + UUID.randomUUID() + "-";
+    }
+
+    @Test
+    void csvRosterReportsEveryRow() throws Exception {
+        userRepo.save(User.builder().username(prefix + "taken").password("x").role(Role.STUDENT).build());
+
+        RosterImportResultDTO result = rosterImportService.importCsv(stream(
+                "role,username,password\n" +
+                        "STUDENT," + prefix + "amy,\"pa,ss\"\"word\"\n" +
+                        "teacher," + prefix + "ben,secret\n" +
+                        "," + prefix + "amy,again\n" +
+                        "STUDENT," + prefix + "taken,secret\n" +
+                        "\n" +
+                        "PRINCIPAL," + prefix + "cat,secret\n" +
+                        "STUDENT,,secret\n" +
+                        "," + prefix + "dan,secret\n"));
+
+        assertEquals(7, result.getTotal());
+        assertEquals(3, result.getCreated());
+        assertEquals(2, result.getSkipped());
+        assertEquals(2, result.getInvalid());
+        assertEquals(List.of(Status.CREATED, Status.CREATED, Status.DUPLICATE, Status.EXISTS,
+                        Status.INVALID, Status.INVALID, Status.CREATED),
+                result.getRows().stream().map(RosterRowResultDTO::getStatus).toList());
+
+        User amy = userRepo.findByUsername(prefix + "amy").orElseThrow();
+        assertTrue(passwordEncoder.matches("pa,ss\"word", amy.getPassword()));
+        assertEquals(Role.TEACHER, userRepo.findByUsername(prefix + "ben").orElseThrow().getRole());
+        assertEquals(Role.STUDENT, userRepo.findByUsername(prefix + "dan").orElseThrow().getRole());
+    }
+
+    @Test
+    void rePostingAfterAPartialImportCreatesOnlyTheRest() throws Exception {
+        String firstHalf = "[{\"username\":\"" + prefix + "a\",\"password\":\"p\"}," +
+                "{\"username\":\"" + prefix + "b\",\"password\":\"p\"}";
+        String full = firstHalf + ",{\"username\":\"" + prefix + "c\",\"password\":\"p\",\"role\":\"TEACHER\"}]";
+
+        assertEquals(2, rosterImportService.importJson(stream(firstHalf + "]")).getCreated());
+        RosterImportResultDTO rerun = rosterImportService.importJson(stream(full));
+
+        assertEquals(1, rerun.getCreated());
+        assertEquals(List.of(Status.EXISTS, Status.EXISTS, Status.CREATED),
+                rerun.getRows().stream().map(RosterRowResultDTO::getStatus).toList());
+        assertEquals(Role.TEACHER, userRepo.findByUsername(prefix + "c").orElseThrow().getRole());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}